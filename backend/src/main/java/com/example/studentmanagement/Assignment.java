@@ -1,5 +1,6 @@
 package com.example.studentmanagement;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -30,8 +31,19 @@ public class Assignment {
 
     private String fileName;
 
+    // Server-side location and content key; files are only reachable through the authorised endpoints
+    @JsonIgnore
     private String filePath;
 
+    // SHA-256 of the uploaded file; its key in FileStorage
+    @JsonIgnore
+    @Column(name = "file_digest", length = 64)
+    private String fileDigest;
+
+    // As sent by the uploader (or guessed from the name), so downloads never probe the file
+    @Column(name = "file_content_type")
+    private String fileContentType;
+
     @Lob
     @Column(columnDefinition = "TEXT")
     private String content;
@@ -42,8 +54,37 @@ public class Assignment {
 
     private String grade; // A, B, C, D, F or numeric
 
+    // Points for grade (A=4, B=3, C=2, D=1, anything else 0), null while ungraded.
+    // Kept in step with grade so analytics can aggregate in SQL.
+    @Column(name = "grade_point")
+    private Double gradePoint;
+
     @Column(length = 500)
     private String feedback;
 
     private String status; // "SUBMITTED", "GRADED", "PENDING"
+
+    @PrePersist
+    @PreUpdate
+    protected void updateGradePoint() {
+        this.gradePoint = gradePointOf(grade);
+    }
+
+    public static Double gradePointOf(String grade) {
+        if (grade == null || grade.isEmpty()) {
+            return null;
+        }
+        switch (grade.toUpperCase()) {
+            case "A":
+                return 4.0;
+            case "B":
+                return 3.0;
+            case "C":
+                return 2.0;
+            case "D":
+                return 1.0;
+            default:
+                return 0.0;
+        }
+    }
 }
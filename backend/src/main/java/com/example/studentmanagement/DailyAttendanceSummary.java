@@ -0,0 +1,26 @@
+package com.example.studentmanagement;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// Number of attendance rows per day and status; kept in step with attendance writes
+@Entity
+@Data
+@Table(name = "daily_attendance_totals", uniqueConstraints = @UniqueConstraint(columnNames = { "date", "status" }))
+public class DailyAttendanceSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "attendance_count", nullable = false)
+    private long count;
+}
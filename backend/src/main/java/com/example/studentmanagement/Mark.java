@@ -5,7 +5,9 @@ import lombok.Data;
 
 @Entity
 @Data
-@Table(name = "marks")
+@Table(name = "marks", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "student_id", "subject", "exam_type" })
+})
 public class Mark {
 
     @Id
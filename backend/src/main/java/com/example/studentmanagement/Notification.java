@@ -1,5 +1,6 @@
 package com.example.studentmanagement;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -7,7 +8,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = @Index(name = "idx_notifications_file_digest", columnList = "file_digest"))
 public class Notification {
 
     @Id
@@ -28,6 +29,11 @@ public class Notification {
 
     private String fileUrl; // PDF attachment path
 
+    // SHA-256 of the attachment; its key in FileStorage
+    @JsonIgnore
+    @Column(name = "file_digest", length = 64)
+    private String fileDigest;
+
     private String postedBy;
     private String priority; // "LOW", "MEDIUM", "HIGH"
 
@@ -0,0 +1,18 @@
+package com.example.studentmanagement;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// A JWT revoked before its natural expiry; rows are purged once the token expires
+@Entity
+@Data
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    @Column(name = "token_id", length = 64)
+    private String tokenId;
+
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+}
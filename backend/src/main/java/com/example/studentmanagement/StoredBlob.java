@@ -0,0 +1,28 @@
+package com.example.studentmanagement;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// One stored file body, shared by every upload with the same content
+@Entity
+@Data
+@Table(name = "stored_blob")
+public class StoredBlob {
+
+    // Hex SHA-256 of the content, which is also its name on disk
+    @Id
+    @Column(length = 64)
+    private String digest;
+
+    @Column(nullable = false)
+    private Long size;
+
+    // Number of assignments and notices pointing at this content
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -3,9 +3,11 @@ package com.example.studentmanagement;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaRepositories(basePackages = "com.example.studentmanagement.repository")
+@EnableScheduling
 public class StudentManagementApplication {
 
 	public static void main(String[] args) {
@@ -1,11 +1,14 @@
 package com.example.studentmanagement;
 
+import com.example.studentmanagement.security.UserLifecycleListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Data
 @Table(name = "users")
+@EntityListeners(UserLifecycleListener.class)
 public class User {
 
     @Id
@@ -28,10 +31,8 @@ public class User {
     @Column(name = "email")
     private String email;
 
-    @Lob
-    @Column(name = "profile_image", columnDefinition = "LONGBLOB")
-    private byte[] profileImage;
-
-    @Column(name = "profile_image_type")
-    private String profileImageType;
+    // Bumped whenever identity or role changes so previously issued tokens stop working
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
 }
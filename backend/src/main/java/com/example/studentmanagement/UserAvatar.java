@@ -0,0 +1,32 @@
+package com.example.studentmanagement;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Profile picture, kept apart from users so loading a user never pulls in image bytes
+@Entity
+@Data
+@Table(name = "user_avatar")
+public class UserAvatar {
+
+    // Same id as the owning user
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Lob
+    @Column(name = "data", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] data;
+
+    // SHA-256 of data, used as the ETag
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
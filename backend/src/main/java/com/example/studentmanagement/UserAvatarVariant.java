@@ -0,0 +1,34 @@
+package com.example.studentmanagement;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// A downscaled copy of a user's avatar, generated after upload
+@Entity
+@Data
+@Table(name = "user_avatar_variant", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "user_id", "size_px" })
+})
+public class UserAvatarVariant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Length of the longer side
+    @Column(name = "size_px", nullable = false)
+    private Integer sizePx;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Lob
+    @Column(name = "data", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] data;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+}
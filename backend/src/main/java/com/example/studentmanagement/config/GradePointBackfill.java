@@ -0,0 +1,45 @@
+package com.example.studentmanagement.config;
+
+import com.example.studentmanagement.Assignment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills assignments.grade_point for rows graded before the column existed.
+ * New and regraded rows get it from the entity, so this only does work on
+ * the first start after the upgrade. It updates one distinct grade at a
+ * time so the mapping stays in {@link Assignment#gradePointOf}.
+ */
+@Component
+public class GradePointBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(GradePointBackfill.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            List<String> grades = jdbcTemplate.queryForList("SELECT DISTINCT grade FROM assignments"
+                    + " WHERE grade_point IS NULL AND grade IS NOT NULL AND grade <> ''", String.class);
+            int updated = 0;
+            for (String grade : grades) {
+                updated += jdbcTemplate.update("UPDATE assignments SET grade_point = ?"
+                        + " WHERE grade = ? AND grade_point IS NULL", Assignment.gradePointOf(grade), grade);
+            }
+            if (updated > 0) {
+                logger.info("Filled grade points for {} graded assignments", updated);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not fill assignment grade points: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.studentmanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves profile pictures from the old users.profile_image column into
+ * user_avatar. Hibernate's schema update never drops columns, so databases
+ * created before the split still carry the images on the users table; this
+ * copies them across once and clears the old columns.
+ */
+@Component
+public class ProfileImageMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileImageMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        try {
+            Integer moved = transactionTemplate.execute(status -> {
+                int copied = jdbcTemplate.update("INSERT INTO user_avatar (user_id, content_type, data, updated_at)"
+                        + " SELECT u.id, COALESCE(u.profile_image_type, 'image/jpeg'), u.profile_image, CURRENT_TIMESTAMP"
+                        + " FROM users u WHERE u.profile_image IS NOT NULL"
+                        + " AND NOT EXISTS (SELECT 1 FROM user_avatar a WHERE a.user_id = u.id)");
+                jdbcTemplate.update("UPDATE users SET profile_image = NULL, profile_image_type = NULL"
+                        + " WHERE profile_image IS NOT NULL");
+                return copied;
+            });
+            if (moved != null && moved > 0) {
+                logger.info("Moved {} profile images to user_avatar", moved);
+            }
+        } catch (Exception e) {
+            // Schemas created after the split have no profile_image column
+            logger.debug("No profile images to migrate: {}", e.getMessage());
+        }
+    }
+}
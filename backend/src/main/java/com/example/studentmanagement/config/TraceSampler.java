@@ -0,0 +1,27 @@
+package com.example.studentmanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which requests get a detailed trace. Callers check the logger
+ * level first, so with tracing disabled this is never consulted.
+ */
+@Component
+public class TraceSampler {
+
+    private final double rate;
+
+    public TraceSampler(@Value("${app.trace.sample-rate:1.0}") double rate) {
+        this.rate = Math.max(0.0, Math.min(1.0, rate));
+    }
+
+    public boolean sample() {
+        if (rate >= 1.0) {
+            return true;
+        }
+        return rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
@@ -1,20 +1,33 @@
 package com.example.studentmanagement.config;
 
+import com.example.studentmanagement.security.CurrentUserArgumentResolver;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import java.io.File;
+import java.util.List;
 
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private CurrentUserArgumentResolver currentUserArgumentResolver;
+
+    @Override
+    public void addArgumentResolvers(@org.springframework.lang.NonNull List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
+    }
+
     @Override
     public void addResourceHandlers(@org.springframework.lang.NonNull ResourceHandlerRegistry registry) {
         String uploadDir = System.getProperty("user.home") + File.separator + "student-mgmt-uploads" + File.separator;
 
-        // Map /api/files/** to the external upload directory
-        registry.addResourceHandler("/api/files/**")
-                .addResourceLocations("file:" + uploadDir);
+        // Notice attachments uploaded before content-addressed storage keep their public URLs.
+        // Only these legacy folders are served: submissions must go through the authorised endpoints
+        registry.addResourceHandler("/api/files/notices/**")
+                .addResourceLocations("file:" + uploadDir + "notices" + File.separator);
 
         // Map announcement uploads
         registry.addResourceHandler("/api/files/announcements/**")
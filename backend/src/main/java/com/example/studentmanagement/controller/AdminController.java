@@ -5,6 +5,14 @@ import com.example.studentmanagement.Student;
 import com.example.studentmanagement.User;
 import com.example.studentmanagement.repository.StudentRepository;
 import com.example.studentmanagement.repository.UserRepository;
+import com.example.studentmanagement.security.PasswordHashingExecutor;
+import com.example.studentmanagement.service.AttendanceSummaryService;
+import com.example.studentmanagement.service.AvatarService;
+import com.example.studentmanagement.service.ReportCardVersions;
+import com.example.studentmanagement.storage.FileStorage;
+import com.example.studentmanagement.security.TimedPasswordEncoder;
+import com.example.studentmanagement.security.TokenRevocationList;
+import com.example.studentmanagement.security.TokenVersionRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -28,6 +36,30 @@ public class AdminController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersions;
+
+    @Autowired
+    private TimedPasswordEncoder timedPasswordEncoder;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+
+    @Autowired
+    private AvatarService avatarService;
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    @Autowired
+    private ReportCardVersions reportCardVersions;
+
     // Get all users
     @GetMapping("/users")
     @PreAuthorize("hasRole('ADMIN')")
@@ -61,7 +93,7 @@ public class AdminController {
             }
 
             user.setRole(Role.valueOf(newRole.toUpperCase()));
-            userRepository.save(user);
+            tokenVersions.bump(user);
             return ResponseEntity.ok(Map.of("message", "Role updated to " + newRole, "id", id));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(
@@ -72,6 +104,18 @@ public class AdminController {
         }
     }
 
+    // Sign the user out everywhere by invalidating every token issued so far
+    @PostMapping("/users/{id}/logout")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> forceLogout(@PathVariable("id") @org.springframework.lang.NonNull Long id) {
+        Optional<User> userOpt = userRepository.findById(id);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "User not found with id: " + id));
+        }
+        tokenVersions.bump(userOpt.get());
+        return ResponseEntity.ok(Map.of("message", "User signed out of all sessions", "id", id));
+    }
+
     // Update user details (username + password + role)
     @PutMapping("/users/{id}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -102,7 +146,7 @@ public class AdminController {
                 user.setRole(Role.valueOf(body.get("role").toUpperCase()));
             }
 
-            userRepository.save(user);
+            tokenVersions.bump(user);
             return ResponseEntity.ok(Map.of("message", "User updated successfully", "id", id));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(Map.of("message", "Update failed: " + e.getMessage()));
@@ -174,6 +218,7 @@ public class AdminController {
                 student.setPhoneNumber(body.getOrDefault("phoneNumber", ""));
                 student.setAddress(body.getOrDefault("address", ""));
                 studentRepository.save(student);
+                reportCardVersions.invalidate(student.getId());
             }
 
             return ResponseEntity.ok(Map.of("message", "User created successfully", "id", user.getId()));
@@ -198,4 +243,27 @@ public class AdminController {
         stats.put("admins", admins);
         return ResponseEntity.ok(stats);
     }
+
+    // Recompute the daily attendance summary from the attendance table
+    @PostMapping("/attendance-summary/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildAttendanceSummary() {
+        long rows = attendanceSummaryService.rebuild();
+        return ResponseEntity.ok(Map.of("message", "Attendance summary rebuilt", "rows", rows));
+    }
+
+    // Runtime metrics for the password hashing pool, token revocation, the avatar cache and file storage
+    @GetMapping("/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> passwordHashing = new LinkedHashMap<>(timedPasswordEncoder.metrics());
+        passwordHashing.putAll(passwordHashingExecutor.metrics());
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("passwordHashing", passwordHashing);
+        metrics.put("revokedTokens", tokenRevocationList.size());
+        metrics.put("avatarCache", avatarService.metrics());
+        metrics.put("fileStorage", fileStorage.metrics());
+        return ResponseEntity.ok(metrics);
+    }
 }
@@ -1,19 +1,28 @@
 package com.example.studentmanagement.controller;
 
 import com.example.studentmanagement.Role;
-import com.example.studentmanagement.repository.AttendanceRepository;
 import com.example.studentmanagement.repository.MarkRepository;
 import com.example.studentmanagement.repository.StudentRepository;
 import com.example.studentmanagement.repository.UserRepository;
+import com.example.studentmanagement.service.AttendanceCounts;
+import com.example.studentmanagement.security.CurrentUser;
+import com.example.studentmanagement.service.AttendanceSummaryService;
+import com.example.studentmanagement.service.GradeStatisticsService;
+import com.example.studentmanagement.service.MarkRanking;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -30,15 +39,21 @@ public class AnalyticsController {
     @Autowired
     private MarkRepository markRepository;
 
-    @Autowired
-    private AttendanceRepository attendanceRepository;
-
     @Autowired
     private com.example.studentmanagement.repository.AssignmentRepository assignmentRepository;
 
     @Autowired
     private com.example.studentmanagement.repository.LeaveRepository leaveRepository;
 
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+
+    @Autowired
+    private MarkRanking markRanking;
+
+    @Autowired
+    private GradeStatisticsService gradeStatisticsService;
+
     @GetMapping("/dashboard-stats")
     public ResponseEntity<Map<String, Object>> getDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
@@ -49,9 +64,9 @@ public class AnalyticsController {
         LocalDate today = LocalDate.now();
         // Mocking 'today' attendance for demo if database empty for today
         // In real app: countByDateAndStatus(today, "Present")
-        long presentToday = attendanceRepository.countByDateBetweenAndStatus(today, today, "Present");
-        long totalToday = attendanceRepository.countByDateBetween(today, today);
-        long absentToday = totalToday - presentToday;
+        AttendanceCounts todayCounts = attendanceSummaryService.getCounts(today, today);
+        long presentToday = todayCounts.getPresent();
+        long absentToday = todayCounts.getTotal() - presentToday;
 
         stats.put("totalStudents", totalStudents);
         stats.put("totalStaff", totalStaff);
@@ -91,18 +106,16 @@ public class AnalyticsController {
         response.put("classAverage", Math.round(classAvg));
 
         // Attendance Rate (Overall)
-        long totalPresent = attendanceRepository.countByStatus("Present");
-        long totalRecords = attendanceRepository.count();
-        double attendanceRate = totalRecords > 0 ? (double) totalPresent / totalRecords * 100 : 0;
-        response.put("attendanceRate", Math.round(attendanceRate));
-
-        // Top Performers
-        List<Object[]> top = markRepository.findTopPerformers();
-        response.put("topPerformers", mapPerformers(top, 5));
+        response.put("attendanceRate", Math.round(attendanceSummaryService.getCounts(null, null).getRate()));
 
-        // Low Performers
-        List<Object[]> low = markRepository.findLowPerformers();
-        response.put("lowPerformers", mapPerformers(low, 5));
+        // Top and low performers, from the ranking once it has loaded
+        if (markRanking.isReady()) {
+            response.put("topPerformers", mapRanks(markRanking.top(null, null, 5)));
+            response.put("lowPerformers", mapRanks(markRanking.bottom(null, null, 5)));
+        } else {
+            response.put("topPerformers", mapPerformers(markRepository.findTopPerformers(), 5));
+            response.put("lowPerformers", mapPerformers(markRepository.findLowPerformers(), 5));
+        }
 
         return ResponseEntity.ok(response);
     }
@@ -123,19 +136,113 @@ public class AnalyticsController {
         }).toList();
     }
 
+    private List<Map<String, Object>> mapRanks(List<MarkRanking.StudentRank> ranks) {
+        Map<Long, Object[]> students = new HashMap<>();
+        if (!ranks.isEmpty()) {
+            for (Object[] row : studentRepository.findNameAndCourseByIdIn(
+                    ranks.stream().map(MarkRanking.StudentRank::studentId).toList())) {
+                students.put((Long) row[0], row);
+            }
+        }
+        return ranks.stream().map(rank -> {
+            Object[] student = students.getOrDefault(rank.studentId(), new Object[3]);
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("studentId", rank.studentId());
+            map.put("studentName", student[1]);
+            map.put("course", student[2]);
+            map.put("percentage", Math.round(rank.percentage()));
+            map.put("rank", rank.rank());
+            map.put("percentile", Math.round(rank.percentile() * 10.0) / 10.0);
+            return map;
+        }).toList();
+    }
+
+    // Count, mean, median, spread, absentees and a 10-band histogram of mark percentages,
+    // per subject and exam type
+    @GetMapping("/grade-distribution")
+    public ResponseEntity<List<Map<String, Object>>> getGradeDistribution(
+            @RequestParam(value = "subject", required = false) String subject,
+            @RequestParam(value = "examType", required = false) String examType) {
+        return ResponseEntity.ok(gradeStatisticsService.getDistributions(subject, examType));
+    }
+
+    // Highest ranked students by percentage, optionally for one subject and/or exam type
+    @GetMapping("/rank/top")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
+    public ResponseEntity<?> getTopRanked(@RequestParam(value = "k", defaultValue = "10") int k,
+            @RequestParam(value = "subject", required = false) String subject,
+            @RequestParam(value = "examType", required = false) String examType) {
+        if (!markRanking.isReady()) {
+            return rankingUnavailable();
+        }
+        return ResponseEntity.ok(mapRanks(markRanking.top(subject, examType, clampK(k))));
+    }
+
+    @GetMapping("/rank/bottom")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
+    public ResponseEntity<?> getBottomRanked(@RequestParam(value = "k", defaultValue = "10") int k,
+            @RequestParam(value = "subject", required = false) String subject,
+            @RequestParam(value = "examType", required = false) String examType) {
+        if (!markRanking.isReady()) {
+            return rankingUnavailable();
+        }
+        return ResponseEntity.ok(mapRanks(markRanking.bottom(subject, examType, clampK(k))));
+    }
+
+    // One student's rank and percentile; "me" for the caller's own record
+    @GetMapping("/rank/student/{studentId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('STUDENT')")
+    public ResponseEntity<?> getStudentRank(@PathVariable("studentId") String studentId,
+            @RequestParam(value = "subject", required = false) String subject,
+            @RequestParam(value = "examType", required = false) String examType,
+            CurrentUser currentUser) {
+        Long sid;
+        if (!currentUser.isStaffOrAdmin() || studentId.equals("me")) {
+            sid = currentUser.getStudentId();
+            if (sid == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No student record"));
+            }
+        } else {
+            try {
+                sid = Long.valueOf(studentId);
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Invalid student id"));
+            }
+        }
+        if (!markRanking.isReady()) {
+            return rankingUnavailable();
+        }
+        return markRanking.rankOf(sid, subject, examType)
+                .<ResponseEntity<?>>map(rank -> ResponseEntity.ok(mapRanks(List.of(rank)).get(0)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", "No marks for this student")));
+    }
+
+    private static int clampK(int k) {
+        return Math.max(1, Math.min(k, 100));
+    }
+
+    private static ResponseEntity<?> rankingUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("message", "Rankings are still loading, try again shortly"));
+    }
+
     @GetMapping("/attendance-trends")
     public ResponseEntity<List<Map<String, Object>>> getAttendanceTrends(
             @RequestParam(value = "period", defaultValue = "weekly") String period) {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = "monthly".equals(period) ? endDate.minusDays(30) : endDate.minusDays(6);
 
-        List<Object[]> results = attendanceRepository.findDailyPresentCounts(startDate, endDate);
+        Map<LocalDate, AttendanceCounts> daily = attendanceSummaryService.getDailyCounts(startDate, endDate);
         long totalStudents = studentRepository.count();
 
-        List<Map<String, Object>> response = results.stream().map(obj -> {
+        // Days with no one present are skipped, as before
+        List<Map<String, Object>> response = daily.entrySet().stream()
+                .filter(e -> e.getValue().getPresent() > 0).map(e -> {
             Map<String, Object> map = new HashMap<>();
-            LocalDate date = (LocalDate) obj[0];
-            Long present = (Long) obj[1];
+            LocalDate date = e.getKey();
+            long present = e.getValue().getPresent();
 
             map.put("period", date.toString()); // Or format as Day/Month
             map.put("present", present);
@@ -155,12 +262,7 @@ public class AnalyticsController {
         long totalStudents = studentRepository.count();
         long assignments = assignmentRepository.count();
         long leaveRequests = leaveRepository.findByStatus("Pending").size();
-        double attendanceRate = 0;
-
-        // Calculate attendance rate
-        long totalPresent = attendanceRepository.countByStatus("Present");
-        long totalRecords = attendanceRepository.count();
-        attendanceRate = totalRecords > 0 ? (double) totalPresent / totalRecords * 100 : 0;
+        double attendanceRate = attendanceSummaryService.getCounts(null, null).getRate();
 
         stats.put("totalStudents", totalStudents);
         stats.put("attendanceRate", Math.round(attendanceRate));
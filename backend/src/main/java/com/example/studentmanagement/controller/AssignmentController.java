@@ -9,27 +9,50 @@ import com.example.studentmanagement.repository.AssignmentTaskRepository;
 import com.example.studentmanagement.repository.NotificationRepository;
 import com.example.studentmanagement.repository.StudentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import com.example.studentmanagement.repository.UserRepository;
-import java.security.Principal;
+import com.example.studentmanagement.security.CurrentUser;
+import com.example.studentmanagement.security.SignedFile;
+import com.example.studentmanagement.security.SignedUrlService;
+import com.example.studentmanagement.payload.UploadSessionRequest;
+import com.example.studentmanagement.service.AssignmentAnalyticsService;
+import com.example.studentmanagement.service.ReportCardVersions;
+import com.example.studentmanagement.service.ResumableUploadService;
+import com.example.studentmanagement.service.SubmissionArchiveService;
+import com.example.studentmanagement.service.UploadSession;
+import com.example.studentmanagement.storage.FileSender;
+import com.example.studentmanagement.storage.FileStorage;
+import com.example.studentmanagement.storage.StoredFile;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 @CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5174" }, maxAge = 3600)
 @RestController
 @RequestMapping("/api/assignments")
 public class AssignmentController {
+    private static final Logger logger = LoggerFactory.getLogger(AssignmentController.class);
 
     @Autowired
     private AssignmentRepository assignmentRepository;
@@ -44,18 +67,25 @@ public class AssignmentController {
     private StudentRepository studentRepository;
 
     @Autowired
-    private UserRepository userRepository;
-
-    private Student getStudentFromPrincipal(Principal principal) {
-        if (principal == null)
-            return null;
-        return userRepository.findByUsername(principal.getName())
-                .flatMap(user -> studentRepository.findByUserId(user.getId()))
-                .orElse(null);
-    }
+    private SignedUrlService signedUrlService;
+
+    @Autowired
+    private ReportCardVersions reportCardVersions;
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    @Autowired
+    private FileSender fileSender;
+
+    @Autowired
+    private SubmissionArchiveService submissionArchiveService;
+
+    @Autowired
+    private ResumableUploadService resumableUploadService;
 
-    private static final String UPLOAD_DIR = System.getProperty("user.home") + File.separator + "student-mgmt-uploads"
-            + File.separator + "assignments" + File.separator;
+    @Autowired
+    private AssignmentAnalyticsService assignmentAnalyticsService;
 
     @PostMapping("/submit")
     @PreAuthorize("hasRole('STUDENT') or hasRole('STAFF')")
@@ -65,29 +95,182 @@ public class AssignmentController {
             @RequestParam(value = "file", required = false) MultipartFile file,
             @RequestParam(value = "content", required = false) String content,
             @RequestParam(value = "submissionType", required = false, defaultValue = "FILE") String submissionType,
-            Principal principal) {
+            CurrentUser currentUser) {
 
         AssignmentTask task = assignmentTaskRepository.findById(taskId).orElse(null);
         if (task == null) {
             return ResponseEntity.badRequest().body(Map.of("message", "Assignment Task not found"));
         }
 
-        // Resolve student
-        Student student = getStudentFromPrincipal(principal);
+        Student student = resolveStudent(studentId, currentUser);
+        if (student == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Authorized student record not found"));
+        }
 
-        // Staff might specify a studentId for manual entry
-        boolean isStaff = userRepository.findByUsername(principal.getName())
-                .map(u -> u.getRole().name().equals("STAFF")).orElse(false);
+        Assignment assignment = newSubmission(student, task, submissionType);
 
-        if (isStaff && studentId != null) {
-            student = studentRepository.findById(studentId)
-                    .orElseGet(() -> studentRepository.findByUserId(studentId).orElse(null));
+        if ("FILE".equalsIgnoreCase(submissionType) && file != null && !file.isEmpty()) {
+            try (InputStream in = file.getInputStream()) {
+                // A resubmission of identical content reuses the stored copy
+                StoredFile stored = fileStorage.store(in);
+                assignment.setFileName(file.getOriginalFilename());
+                assignment.setFileDigest(stored.digest());
+                assignment.setFileContentType(guessContentType(file.getOriginalFilename()));
+                assignment.setFilePath(fileStorage.resolve(stored.digest()).toString());
+            } catch (IOException e) {
+                return ResponseEntity.badRequest().body(Map.of("message", "File upload failed: " + e.getMessage()));
+            }
+        } else if ("TEXT".equalsIgnoreCase(submissionType)) {
+            assignment.setContent(content);
+            assignment.setFileName("Text Submission");
         }
 
+        return ResponseEntity.ok(saveSubmission(assignment));
+    }
+
+    /**
+     * Opens a resumable upload for a large file. The client then PUTs each
+     * chunk to {@code /uploads/{id}/chunks/{index}}, can GET the session to
+     * see which chunks are missing, and POSTs {@code /uploads/{id}/complete}
+     * to turn the file into a submission.
+     */
+    @PostMapping("/uploads")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('STAFF')")
+    public ResponseEntity<?> createUpload(@RequestBody UploadSessionRequest request, CurrentUser currentUser) {
+        if (request.getTaskId() == null || request.getSize() == null || request.getFileName() == null
+                || request.getFileName().isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "taskId, fileName and size are required"));
+        }
+        if (!assignmentTaskRepository.existsById(request.getTaskId())) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Assignment Task not found"));
+        }
+        Student student = resolveStudent(request.getStudentId(), currentUser);
         if (student == null) {
             return ResponseEntity.badRequest().body(Map.of("message", "Authorized student record not found"));
         }
+        try {
+            UploadSession session = resumableUploadService.create(currentUser.getUserId(), student.getId(),
+                    request.getTaskId(), request.getFileName(),
+                    guessContentType(request.getFileName()), request.getSize(),
+                    request.getChunkSize());
+            return ResponseEntity.created(URI.create("/api/assignments/uploads/" + session.getId())).body(session);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("message", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("message", "Could not start the upload: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('STAFF')")
+    public ResponseEntity<?> getUpload(@PathVariable("uploadId") String uploadId, CurrentUser currentUser) {
+        return resumableUploadService.find(uploadId, currentUser.getUserId())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> uploadNotFound());
+    }
+
+    /**
+     * Receives one chunk as the raw request body. {@code offset}, if given,
+     * must match the chunk's position; {@code X-Chunk-SHA256} is checked
+     * against the bytes received. Form content types are refused, since the
+     * form filter would read the body first.
+     */
+    @PutMapping(value = "/uploads/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('STUDENT') or hasRole('STAFF')")
+    public ResponseEntity<?> putUploadChunk(@PathVariable("uploadId") String uploadId,
+            @PathVariable("index") int index,
+            @RequestParam(value = "offset", required = false) Long offset,
+            @RequestHeader(value = "X-Chunk-SHA256", required = false) String sha256,
+            HttpServletRequest request, CurrentUser currentUser) {
+        UploadSession session = resumableUploadService.find(uploadId, currentUser.getUserId()).orElse(null);
+        if (session == null) {
+            return uploadNotFound();
+        }
+        if (offset != null && offset != (long) index * session.getChunkSize()) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "Chunk " + index + " starts at offset " + (long) index * session.getChunkSize()));
+        }
+        try {
+            resumableUploadService.writeChunk(session, index, request.getInputStream(), sha256);
+            return ResponseEntity.ok(Map.of("index", index, "receivedChunks", session.getReceivedChunks(),
+                    "chunkCount", session.getChunkCount()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (IOException e) {
+            // Usually the client went away mid-chunk; it can resend the chunk
+            logger.debug("Chunk {} of upload {} failed: {}", index, uploadId, e.getMessage());
+            return ResponseEntity.internalServerError().body(Map.of("message", "Chunk upload failed, resend it"));
+        }
+    }
+
+    // Optional body: {"sha256": "<hex digest of the whole file>"}
+    @PostMapping("/uploads/{uploadId}/complete")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('STAFF')")
+    public ResponseEntity<?> completeUpload(@PathVariable("uploadId") String uploadId,
+            @RequestBody(required = false) Map<String, String> body, CurrentUser currentUser) {
+        UploadSession session = resumableUploadService.find(uploadId, currentUser.getUserId()).orElse(null);
+        if (session == null) {
+            return uploadNotFound();
+        }
+        Student student = studentRepository.findById(session.getStudentId()).orElse(null);
+        AssignmentTask task = assignmentTaskRepository.findById(session.getTaskId()).orElse(null);
+        if (student == null || task == null) {
+            resumableUploadService.cancel(session);
+            return ResponseEntity.badRequest().body(Map.of("message", "The student or task no longer exists"));
+        }
+        StoredFile stored;
+        try {
+            stored = resumableUploadService.complete(session, body != null ? body.get("sha256") : null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage(), "missingChunks", session.getMissingChunks()));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("message", "Could not store the upload: " + e.getMessage()));
+        }
+
+        Assignment assignment = newSubmission(student, task, "FILE");
+        assignment.setFileName(session.getFileName());
+        assignment.setFileDigest(stored.digest());
+        assignment.setFileContentType(session.getContentType());
+        assignment.setFilePath(fileStorage.resolve(stored.digest()).toString());
+        return ResponseEntity.ok(saveSubmission(assignment));
+    }
 
+    @DeleteMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('STAFF')")
+    public ResponseEntity<?> cancelUpload(@PathVariable("uploadId") String uploadId, CurrentUser currentUser) {
+        UploadSession session = resumableUploadService.find(uploadId, currentUser.getUserId()).orElse(null);
+        if (session == null) {
+            return uploadNotFound();
+        }
+        resumableUploadService.cancel(session);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseEntity<?> uploadNotFound() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No such upload"));
+    }
+
+    // Staff may name a student (by student or user id) for manual entry; students always submit as themselves
+    private Student resolveStudent(Long studentId, CurrentUser currentUser) {
+        if (currentUser.isStaff() && studentId != null) {
+            return studentRepository.findById(studentId)
+                    .orElseGet(() -> studentRepository.findByUserId(studentId).orElse(null));
+        } else if (currentUser.getStudentId() != null) {
+            return studentRepository.findById(currentUser.getStudentId()).orElse(null);
+        }
+        return null;
+    }
+
+    private static Assignment newSubmission(Student student, AssignmentTask task, String submissionType) {
         Assignment assignment = new Assignment();
         assignment.setStudent(student);
         assignment.setTask(task);
@@ -96,140 +279,141 @@ public class AssignmentController {
         assignment.setSubmittedAt(LocalDateTime.now());
         assignment.setSubmissionType(submissionType);
         assignment.setStatus("SUBMITTED");
+        return assignment;
+    }
 
-        if ("FILE".equalsIgnoreCase(submissionType) && file != null && !file.isEmpty()) {
-            try {
-                Path uploadPath = Paths.get(UPLOAD_DIR);
-                if (!Files.exists(uploadPath)) {
-                    Files.createDirectories(uploadPath);
-                }
-                String originalName = file.getOriginalFilename();
-                String safeName = originalName != null ? originalName.replaceAll("[^a-zA-Z0-9._-]", "_") : "file";
-                String fileName = System.currentTimeMillis() + "_" + safeName;
-                Path dest = uploadPath.resolve(fileName);
-                file.transferTo(dest.toFile());
-                assignment.setFileName(originalName);
-                assignment.setFilePath(dest.toAbsolutePath().toString());
-            } catch (IOException e) {
-                return ResponseEntity.badRequest().body(Map.of("message", "File upload failed: " + e.getMessage()));
+    // Saves the submission and notifies staff; a stored file is released if the save fails
+    private Assignment saveSubmission(Assignment assignment) {
+        Assignment saved;
+        try {
+            saved = assignmentRepository.save(assignment);
+        } catch (RuntimeException e) {
+            if (assignment.getFileDigest() != null) {
+                fileStorage.release(assignment.getFileDigest());
             }
-        } else if ("TEXT".equalsIgnoreCase(submissionType)) {
-            assignment.setContent(content);
-            assignment.setFileName("Text Submission");
+            throw e;
         }
-
-        Assignment saved = assignmentRepository.save(assignment);
+        reportCardVersions.invalidate(assignment.getStudent().getId());
 
         // Notify Staff
         Notification n = new Notification();
         n.setTitle("New Assignment Submission");
-        n.setMessage("Student " + student.getName() + " submitted " + task.getTitle());
+        n.setMessage("Student " + assignment.getStudent().getName() + " submitted " + assignment.getTask().getTitle());
         n.setRecipientRole("STAFF");
         n.setCategory("NOTICE");
         n.setType("SYSTEM");
         n.setActive(true);
         notificationRepository.save(n);
-
-        return ResponseEntity.ok(saved);
+        return saved;
     }
 
     @GetMapping("/download/{id}")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('STAFF')")
     public ResponseEntity<?> downloadAssignment(@PathVariable("id") Long id,
-            @RequestParam(value = "token", required = false) String token) {
-        System.out.println("DEBUG: Entering downloadAssignment for ID: " + id + " with token: "
-                + (token != null ? "PRESENT" : "NULL"));
+            @RequestParam(value = "token", required = false) String token, CurrentUser currentUser,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.debug("Download assignment id={} tokenParam={}", id, token != null);
+        return sendSubmission(id, false, currentUser, request, response);
+    }
+
+    @GetMapping("/preview/{id}")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('STAFF')")
+    public ResponseEntity<?> previewAssignment(@PathVariable("id") Long id,
+            @RequestParam(value = "token", required = false) String token, CurrentUser currentUser,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.debug("Preview assignment id={} tokenParam={}", id, token != null);
+        return sendSubmission(id, true, currentUser, request, response);
+    }
+
+    private ResponseEntity<?> sendSubmission(Long id, boolean inline, CurrentUser currentUser,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
         if (id == null)
             return ResponseEntity.badRequest().build();
         Assignment assignment = assignmentRepository.findById(id).orElse(null);
         if (assignment == null || (assignment.getFilePath() == null && assignment.getContent() == null)) {
             return ResponseEntity.notFound().build();
         }
+        if (!canAccess(assignment, currentUser)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Not your submission"));
+        }
 
         if ("TEXT".equalsIgnoreCase(assignment.getSubmissionType())) {
             String content = assignment.getContent();
             if (content == null)
                 content = "";
-            return ResponseEntity.ok()
-                    .contentType(org.springframework.http.MediaType.TEXT_PLAIN)
-                    .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
-                            "attachment; filename=\"submission.txt\"")
-                    .body(content);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN);
+            if (!inline) {
+                builder.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"submission.txt\"");
+            }
+            return builder.body(content);
         }
 
-        try {
-            File file = new File(assignment.getFilePath());
-            if (!file.exists()) {
-                return ResponseEntity.notFound().build();
-            }
-            Path path = file.toPath();
-            org.springframework.core.io.Resource resource = new org.springframework.core.io.UrlResource(path.toUri());
-            String cType = Files.probeContentType(path);
-            org.springframework.http.MediaType mediaType = cType != null
-                    ? org.springframework.http.MediaType.parseMediaType(cType)
-                    : org.springframework.http.MediaType.APPLICATION_OCTET_STREAM;
-
-            return ResponseEntity.ok()
-                    .contentType(mediaType)
-                    .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
-                            "attachment; filename=\"" + assignment.getFileName() + "\"")
-                    .body(resource);
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
+        Path path = submittedFile(assignment);
+        if (path == null || !Files.isReadable(path)) {
+            return ResponseEntity.notFound().build();
         }
+        String etag = assignment.getFileDigest() != null ? "\"" + assignment.getFileDigest() + "\"" : null;
+        fileSender.send(request, response, path, contentTypeOf(assignment),
+                FileSender.disposition(inline, assignment.getFileName()), etag,
+                CacheControl.noCache().cachePrivate());
+        // The response has been written
+        return null;
     }
 
-    @GetMapping("/preview/{id}")
-    public ResponseEntity<?> previewAssignment(@PathVariable("id") Long id,
-            @RequestParam(value = "token", required = false) String token) {
-        System.out.println("DEBUG: Entering previewAssignment for ID: " + id + " with token: "
-                + (token != null ? "PRESENT" : "NULL"));
-        if (id == null)
-            return ResponseEntity.badRequest().build();
+    /**
+     * Mints a short-lived signed link to a submitted file. The link is served
+     * by {@link #serveSignedFile} without touching the database.
+     */
+    @GetMapping("/{id}/link")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('STAFF')")
+    public ResponseEntity<?> createFileLink(@PathVariable("id") @org.springframework.lang.NonNull Long id,
+            @RequestParam(value = "disposition", defaultValue = "inline") String disposition,
+            CurrentUser currentUser) {
         Assignment assignment = assignmentRepository.findById(id).orElse(null);
-        if (assignment == null || (assignment.getFilePath() == null && assignment.getContent() == null)) {
+        if (assignment == null || assignment.getFilePath() == null) {
             return ResponseEntity.notFound().build();
         }
-
-        if ("TEXT".equalsIgnoreCase(assignment.getSubmissionType())) {
-            return ResponseEntity.ok()
-                    .contentType(org.springframework.http.MediaType.TEXT_PLAIN)
-                    .body(assignment.getContent());
+        if (!canAccess(assignment, currentUser)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Not your submission"));
         }
 
-        try {
-            File file = new File(assignment.getFilePath());
-            if (!file.exists()) {
-                return ResponseEntity.notFound().build();
-            }
-            Path path = file.toPath();
-            org.springframework.core.io.Resource resource = new org.springframework.core.io.UrlResource(path.toUri());
-            String cType = Files.probeContentType(path);
-            org.springframework.http.MediaType mediaType = cType != null
-                    ? org.springframework.http.MediaType.parseMediaType(cType)
-                    : org.springframework.http.MediaType.APPLICATION_OCTET_STREAM;
-
-            return ResponseEntity.ok()
-                    .contentType(mediaType)
-                    .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
-                            "inline; filename=\"" + assignment.getFileName() + "\"")
-                    .body(resource);
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
+        long expiresAt = System.currentTimeMillis() / 1000 + signedUrlService.getTtlSeconds();
+        SignedFile file = new SignedFile(submittedFile(assignment).toString(), contentTypeOf(assignment),
+                assignment.getFileName(), !"attachment".equalsIgnoreCase(disposition), expiresAt);
+        String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/assignments/files")
+                .queryParam("f", signedUrlService.sign(file))
+                .build()
+                .toUriString();
+        return ResponseEntity.ok(Map.of("url", url, "expiresAt", expiresAt));
+    }
+
+    // Serves a file from a signed link; the signature is the only credential
+    @GetMapping("/files")
+    public ResponseEntity<?> serveSignedFile(@RequestParam("f") String token,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        SignedFile file = signedUrlService.verify(token);
+        if (file == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
+        Path path = Paths.get(file.getPath());
+        if (!Files.isReadable(path)) {
+            return ResponseEntity.notFound().build();
+        }
+        fileSender.send(request, response, path, file.getContentType(),
+                FileSender.disposition(file.isInline(), file.getFileName()), null,
+                CacheControl.maxAge(signedUrlService.getTtlSeconds(), TimeUnit.SECONDS).cachePrivate());
+        return null;
     }
 
     @GetMapping("/student/{studentId}")
     @PreAuthorize("hasRole('STUDENT') or hasRole('STAFF')")
     public ResponseEntity<List<Assignment>> getByStudent(@PathVariable("studentId") String studentId,
-            Principal principal) {
-        boolean isStaff = userRepository.findByUsername(principal.getName())
-                .map(u -> u.getRole().name().equals("STAFF")).orElse(false);
-
-        if (!isStaff || studentId.equals("me")) {
-            Student student = getStudentFromPrincipal(principal);
-            if (student == null)
+            CurrentUser currentUser) {
+        if (!currentUser.isStaff() || studentId.equals("me")) {
+            if (currentUser.getStudentId() == null)
                 return ResponseEntity.ok(List.of());
-            return ResponseEntity.ok(assignmentRepository.findByStudentId(student.getId()));
+            return ResponseEntity.ok(assignmentRepository.findByStudentId(currentUser.getStudentId()));
         }
 
         try {
@@ -263,6 +447,9 @@ public class AssignmentController {
         assignment.setFeedback(body.getOrDefault("feedback", ""));
         assignment.setStatus("GRADED");
         Assignment saved = assignmentRepository.save(assignment);
+        if (assignment.getStudent() != null) {
+            reportCardVersions.invalidate(assignment.getStudent().getId());
+        }
 
         // Notify Student
         Notification n = new Notification();
@@ -308,6 +495,27 @@ public class AssignmentController {
         return ResponseEntity.ok(assignmentTaskRepository.findById(id).orElse(null));
     }
 
+    /**
+     * Every submission for a task as one ZIP, streamed as it is built so the
+     * download starts at once however many submissions there are.
+     */
+    @GetMapping("/tasks/{taskId}/submissions.zip")
+    @PreAuthorize("hasRole('STAFF')")
+    public ResponseEntity<StreamingResponseBody> downloadSubmissionsZip(
+            @PathVariable("taskId") @org.springframework.lang.NonNull Long taskId) {
+        AssignmentTask task = assignmentTaskRepository.findById(taskId).orElse(null);
+        if (task == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String title = task.getTitle() != null ? task.getTitle() : "task-" + taskId;
+        StreamingResponseBody body = out -> submissionArchiveService.write(taskId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        FileSender.disposition(false, title + " submissions.zip").toString())
+                .body(body);
+    }
+
     @GetMapping("/submissions/task/{taskId}")
     @PreAuthorize("hasRole('STAFF')")
     public ResponseEntity<List<Assignment>> getSubmissionsByTask(
@@ -315,37 +523,39 @@ public class AssignmentController {
         return ResponseEntity.ok(assignmentRepository.findByTaskId(taskId));
     }
 
+    // Average grade points, submission counts, on-time vs late and grade distribution, by subject or by task
     @GetMapping("/analytics")
     @PreAuthorize("hasRole('STAFF')")
-    public ResponseEntity<?> getAnalytics() {
-        List<Assignment> all = assignmentRepository.findAll();
-        Map<String, List<Assignment>> bySubject = all.stream()
-                .filter(a -> a.getGrade() != null && !a.getGrade().isEmpty())
-                .collect(Collectors.groupingBy(Assignment::getSubject));
-
-        java.util.List<Map<String, Object>> stats = new java.util.ArrayList<>();
-        for (String sub : bySubject.keySet()) {
-            List<Assignment> subs = bySubject.get(sub);
-            double avg = subs.stream().mapToDouble(a -> gradeToPoint(a.getGrade())).average().orElse(0.0);
-            stats.add(Map.of("subject", sub, "averageGrade", avg, "submissionCount", subs.size()));
+    public ResponseEntity<?> getAnalytics(@RequestParam(value = "groupBy", defaultValue = "subject") String groupBy) {
+        if ("task".equalsIgnoreCase(groupBy)) {
+            return ResponseEntity.ok(assignmentAnalyticsService.byTask());
         }
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(assignmentAnalyticsService.bySubject());
     }
 
-    private double gradeToPoint(String grade) {
-        if (grade == null)
-            return 0.0;
-        switch (grade.toUpperCase()) {
-            case "A":
-                return 4.0;
-            case "B":
-                return 3.0;
-            case "C":
-                return 2.0;
-            case "D":
-                return 1.0;
-            default:
-                return 0.0;
+    // Staff see every submission, students only their own
+    private static boolean canAccess(Assignment assignment, CurrentUser currentUser) {
+        return currentUser.isStaff() || (assignment.getStudent() != null
+                && assignment.getStudent().getId().equals(currentUser.getStudentId()));
+    }
+
+    // Content-addressed uploads are found by digest; older ones by their saved path
+    private Path submittedFile(Assignment assignment) {
+        if (assignment.getFileDigest() != null) {
+            return fileStorage.resolve(assignment.getFileDigest());
         }
+        return assignment.getFilePath() != null ? Paths.get(assignment.getFilePath()) : null;
+    }
+
+    private static String contentTypeOf(Assignment assignment) {
+        if (assignment.getFileContentType() != null) {
+            return assignment.getFileContentType();
+        }
+        return guessContentType(assignment.getFileName());
+    }
+
+    // Worked out from the name, never taken from the uploader, whose declared type could be anything
+    private static String guessContentType(String fileName) {
+        return MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
     }
 }
@@ -1,17 +1,20 @@
 package com.example.studentmanagement.controller;
 
 import com.example.studentmanagement.Attendance;
+import com.example.studentmanagement.payload.AttendanceHistory;
+import com.example.studentmanagement.service.AttendanceCounts;
 import com.example.studentmanagement.service.AttendanceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import com.example.studentmanagement.repository.UserRepository;
-import com.example.studentmanagement.repository.StudentRepository;
-import com.example.studentmanagement.Student;
-import java.security.Principal;
+import com.example.studentmanagement.security.CurrentUser;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5174" }, maxAge = 3600)
 @RestController
@@ -21,20 +24,6 @@ public class AttendanceController {
     @Autowired
     private AttendanceService attendanceService;
 
-    @Autowired
-    private UserRepository userRepository;
-
-    @Autowired
-    private StudentRepository studentRepository;
-
-    private Student getStudentFromPrincipal(Principal principal) {
-        if (principal == null)
-            return null;
-        return userRepository.findByUsername(principal.getName())
-                .flatMap(user -> studentRepository.findByUserId(user.getId()))
-                .orElse(null);
-    }
-
     @PostMapping
     @PreAuthorize("hasRole('STAFF')")
     public Attendance markAttendance(@RequestBody Attendance attendance) {
@@ -43,21 +32,26 @@ public class AttendanceController {
 
     @PostMapping("/bulk")
     @PreAuthorize("hasRole('STAFF')")
-    public List<Attendance> markBulkAttendance(@RequestBody List<Attendance> attendanceList) {
-        return attendanceService.markBulkAttendance(attendanceList);
+    public ResponseEntity<?> markBulkAttendance(@RequestBody List<Attendance> attendanceList) {
+        try {
+            return ResponseEntity.ok(attendanceService.markBulkAttendance(attendanceList));
+        } catch (DataIntegrityViolationException e) {
+            // Another request inserted one of the same (student, date) rows first;
+            // a second pass sees it and updates instead
+            return ResponseEntity.ok(attendanceService.markBulkAttendance(attendanceList));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
 
     @GetMapping("/student/{studentId}")
     @PreAuthorize("hasRole('STAFF') or hasRole('STUDENT')")
-    public List<Attendance> getAttendanceByStudent(@PathVariable("studentId") String studentId, Principal principal) {
-        boolean isStaff = userRepository.findByUsername(principal.getName())
-                .map(u -> u.getRole().name().equals("STAFF")).orElse(false);
-
-        if (!isStaff || studentId.equals("me")) {
-            Student student = getStudentFromPrincipal(principal);
-            if (student == null)
+    public List<Attendance> getAttendanceByStudent(@PathVariable("studentId") String studentId,
+            CurrentUser currentUser) {
+        if (!currentUser.isStaff() || studentId.equals("me")) {
+            if (currentUser.getStudentId() == null)
                 return List.of();
-            return attendanceService.getAttendanceByStudent(student.getId());
+            return attendanceService.getAttendanceByStudent(currentUser.getStudentId());
         }
 
         try {
@@ -67,6 +61,62 @@ public class AttendanceController {
         }
     }
 
+    // Attendance counts and rate for one student; "me" for the caller's own record
+    @GetMapping("/rate/{studentId}")
+    @PreAuthorize("hasRole('STAFF') or hasRole('STUDENT')")
+    public ResponseEntity<?> getStudentRate(@PathVariable("studentId") String studentId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            CurrentUser currentUser) {
+        Long sid;
+        if (!currentUser.isStaff() || studentId.equals("me")) {
+            sid = currentUser.getStudentId();
+            if (sid == null)
+                return ResponseEntity.ok(new AttendanceCounts(0, 0, 0, 0).toMap());
+        } else {
+            try {
+                sid = Long.valueOf(studentId);
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Invalid student id"));
+            }
+        }
+        return ResponseEntity.ok(attendanceService.getStudentCounts(sid, from, to).toMap());
+    }
+
+    // Compact attendance history as status runs; "me" for the caller's own record
+    @GetMapping("/history/{studentId}")
+    @PreAuthorize("hasRole('STAFF') or hasRole('STUDENT')")
+    public ResponseEntity<?> getHistory(@PathVariable("studentId") String studentId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            CurrentUser currentUser) {
+        Long sid;
+        if (!currentUser.isStaff() || studentId.equals("me")) {
+            sid = currentUser.getStudentId();
+            if (sid == null) {
+                AttendanceHistory empty = new AttendanceHistory(null);
+                empty.setTotals(new AttendanceCounts(0, 0, 0, 0).toMap());
+                return ResponseEntity.ok(empty);
+            }
+        } else {
+            try {
+                sid = Long.valueOf(studentId);
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Invalid student id"));
+            }
+        }
+        return ResponseEntity.ok(attendanceService.getHistory(sid, from, to));
+    }
+
+    // Attendance counts and rate across all students
+    @GetMapping("/rate")
+    @PreAuthorize("hasRole('STAFF')")
+    public ResponseEntity<?> getClassRate(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(attendanceService.getClassCounts(from, to).toMap());
+    }
+
     @GetMapping("/date/{date}")
     @PreAuthorize("hasRole('STAFF')")
     public List<Attendance> getAttendanceByDate(@PathVariable("date") String date) {
@@ -8,8 +8,14 @@ import com.example.studentmanagement.payload.SignupRequest;
 import com.example.studentmanagement.repository.UserRepository;
 import com.example.studentmanagement.repository.StudentRepository;
 import com.example.studentmanagement.repository.StaffRepository;
-import com.example.studentmanagement.security.JwtUtils;
+import com.example.studentmanagement.security.JwtPrincipal;
+import com.example.studentmanagement.security.PasswordHashingExecutor;
+import com.example.studentmanagement.security.TokenRevocationList;
+import com.example.studentmanagement.security.TokenIssuer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -20,6 +26,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5174" }, maxAge = 3600)
@@ -43,17 +50,31 @@ public class AuthController {
         PasswordEncoder encoder;
 
         @Autowired
-        JwtUtils jwtUtils;
+        TokenIssuer tokenIssuer;
+
+        @Autowired
+        PasswordHashingExecutor passwordHashingExecutor;
+
+        @Autowired
+        TokenRevocationList tokenRevocationList;
+
+        @Value("${app.security.login-retry-after-seconds:2}")
+        private int loginRetryAfterSeconds;
 
         @PostMapping("/signin")
         public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
 
-                Authentication authentication = authenticationManager.authenticate(
-                                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(),
-                                                loginRequest.getPassword()));
+                Authentication authentication;
+                try {
+                        // BCrypt runs on the bounded hashing pool, not on the request thread
+                        authentication = passwordHashingExecutor.execute(() -> authenticationManager.authenticate(
+                                        new UsernamePasswordAuthenticationToken(loginRequest.getUsername(),
+                                                        loginRequest.getPassword())));
+                } catch (RejectedExecutionException e) {
+                        return tooBusy();
+                }
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                String jwt = jwtUtils.generateJwtToken(authentication);
 
                 UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
@@ -82,6 +103,8 @@ public class AuthController {
                         }
                 }
 
+                String jwt = tokenIssuer.issue(user);
+
                 return ResponseEntity.ok(new JwtResponse(jwt,
                                 user.getId(),
                                 user.getUsername(),
@@ -101,7 +124,12 @@ public class AuthController {
                 // Create new user's account
                 User user = new User();
                 user.setUsername(signUpRequest.getUsername());
-                user.setPassword(encoder.encode(signUpRequest.getPassword()));
+                try {
+                        user.setPassword(passwordHashingExecutor.execute(
+                                        () -> encoder.encode(signUpRequest.getPassword())));
+                } catch (RejectedExecutionException e) {
+                        return tooBusy();
+                }
                 user.setRole(signUpRequest.getRole());
                 user.setName(signUpRequest.getUsername()); // Initial name defaults to username
 
@@ -109,4 +137,24 @@ public class AuthController {
 
                 return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
         }
+
+        // Revokes the token the request was made with; other sessions stay signed in
+        @PostMapping("/logout")
+        public ResponseEntity<?> logout() {
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                if (authentication == null || !(authentication.getPrincipal() instanceof JwtPrincipal principal)
+                                || principal.getTokenId() == null) {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                        .body(new MessageResponse("Error: Not signed in"));
+                }
+                tokenRevocationList.revoke(principal.getTokenId(), principal.getExpiresAtMillis());
+                SecurityContextHolder.clearContext();
+                return ResponseEntity.ok(new MessageResponse("Signed out successfully"));
+        }
+
+        private ResponseEntity<?> tooBusy() {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginRetryAfterSeconds))
+                                .body(new MessageResponse("Error: Server is busy, please try again shortly"));
+        }
 }
@@ -5,6 +5,8 @@ import com.example.studentmanagement.Mark;
 import com.example.studentmanagement.Student;
 import com.example.studentmanagement.repository.AttendanceRepository;
 import com.example.studentmanagement.repository.MarkRepository;
+import com.example.studentmanagement.service.AttendanceCounts;
+import com.example.studentmanagement.service.AttendanceService;
 import com.example.studentmanagement.service.StudentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
@@ -32,6 +34,9 @@ public class ExportController {
     @Autowired
     private AttendanceRepository attendanceRepository;
 
+    @Autowired
+    private AttendanceService attendanceService;
+
     @GetMapping("/students/csv")
     @PreAuthorize("hasRole('STAFF')")
     public ResponseEntity<byte[]> exportStudentsCsv() {
@@ -113,9 +118,9 @@ public class ExportController {
             sb.append(String.format("%d,%s,%s\n", i++, dateStr, a.getStatus()));
         }
 
-        long present = records.stream().filter(a -> "Present".equals(a.getStatus())).count();
-        double pct = records.size() > 0 ? (present * 100.0 / records.size()) : 0;
-        sb.append(String.format("\nSummary:,Present: %d/%d,%.1f%%\n", present, records.size(), pct));
+        AttendanceCounts counts = attendanceService.getStudentCounts(studentId, null, null);
+        sb.append(String.format("\nSummary:,Present: %d/%d,%.1f%%\n", counts.getPresent(), counts.getTotal(),
+                counts.getRate()));
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=attendance_" + studentId + ".csv")
@@ -138,9 +143,9 @@ public class ExportController {
             sb.append(String.format("%d,\"%s\",%s,%s\n", sId, studentName, dateStr, a.getStatus()));
         }
 
-        long present = records.stream().filter(a -> "Present".equals(a.getStatus())).count();
-        double pct = records.size() > 0 ? (present * 100.0 / records.size()) : 0;
-        sb.append(String.format("\nSummary:,Present: %d/%d,%.1f%%\n", present, records.size(), pct));
+        AttendanceCounts counts = attendanceService.getClassCounts(null, null);
+        sb.append(String.format("\nSummary:,Present: %d/%d,%.1f%%\n", counts.getPresent(), counts.getTotal(),
+                counts.getRate()));
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=all_attendance_report.csv")
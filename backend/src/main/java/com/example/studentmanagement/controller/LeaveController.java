@@ -10,8 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import com.example.studentmanagement.repository.UserRepository;
-import java.security.Principal;
+import com.example.studentmanagement.security.CurrentUser;
 
 import java.util.List;
 import java.util.Map;
@@ -30,30 +29,16 @@ public class LeaveController {
     @Autowired
     private NotificationRepository notificationRepository;
 
-    @Autowired
-    private UserRepository userRepository;
-
-    private Student getStudentFromPrincipal(Principal principal) {
-        if (principal == null)
-            return null;
-        return userRepository.findByUsername(principal.getName())
-                .flatMap(user -> studentRepository.findByUserId(user.getId()))
-                .orElse(null);
-    }
-
     @PostMapping
     @PreAuthorize("hasRole('STUDENT') or hasRole('STAFF')")
-    public ResponseEntity<?> applyLeave(@RequestBody Map<String, Object> body, Principal principal) {
+    public ResponseEntity<?> applyLeave(@RequestBody Map<String, Object> body, CurrentUser currentUser) {
         try {
-            Student student = getStudentFromPrincipal(principal);
+            Student student = null;
+            Long sid = null;
 
             // If staff is applying on behalf of a student, they might provide an ID
             // but for students, we MUST use their own identity
-            boolean isStaff = userRepository.findByUsername(principal.getName())
-                    .map(u -> u.getRole().name().equals("STAFF")).orElse(false);
-
-            if (isStaff) {
-                Long sid = null;
+            if (currentUser.isStaff()) {
                 if (body.containsKey("student")) {
                     @SuppressWarnings("unchecked")
                     Map<String, Object> studentMap = (Map<String, Object>) body.get("student");
@@ -62,12 +47,14 @@ public class LeaveController {
                 }
                 if (body.containsKey("studentId"))
                     sid = Long.valueOf(body.get("studentId").toString());
+            }
 
-                if (sid != null) {
-                    final Long finalSid = sid;
-                    student = studentRepository.findById(finalSid)
-                            .orElseGet(() -> studentRepository.findByUserId(finalSid).orElse(null));
-                }
+            if (sid != null) {
+                final Long finalSid = sid;
+                student = studentRepository.findById(finalSid)
+                        .orElseGet(() -> studentRepository.findByUserId(finalSid).orElse(null));
+            } else if (currentUser.getStudentId() != null) {
+                student = studentRepository.findById(currentUser.getStudentId()).orElse(null);
             }
 
             if (student == null) {
@@ -102,16 +89,13 @@ public class LeaveController {
     @GetMapping("/student/{studentId}")
     @PreAuthorize("hasRole('STUDENT') or hasRole('STAFF')")
     public ResponseEntity<List<Leave>> getStudentLeaves(@PathVariable("studentId") String studentId,
-            Principal principal) {
-        boolean isStaff = userRepository.findByUsername(principal.getName())
-                .map(u -> u.getRole().name().equals("STAFF")).orElse(false);
-
-        if (!isStaff || studentId.equals("me")) {
+            CurrentUser currentUser) {
+        if (!currentUser.isStaff() || studentId.equals("me")) {
             // Enforce student ownership
-            Student currentStudent = getStudentFromPrincipal(principal);
-            if (currentStudent == null)
+            Long currentStudentId = currentUser.getStudentId();
+            if (currentStudentId == null)
                 return ResponseEntity.status(403).build();
-            return ResponseEntity.ok(leaveService.getLeavesByStudent(currentStudent.getId()));
+            return ResponseEntity.ok(leaveService.getLeavesByStudent(currentStudentId));
         }
 
         // Staff flow - use the provided studentId (must be numeric)
@@ -1,16 +1,25 @@
 package com.example.studentmanagement.controller;
 
 import com.example.studentmanagement.Mark;
+import com.example.studentmanagement.payload.BulkMarksRequest;
+import com.example.studentmanagement.service.MarkImportJob;
+import com.example.studentmanagement.service.MarkImportService;
 import com.example.studentmanagement.service.MarkService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
-import com.example.studentmanagement.repository.UserRepository;
-import com.example.studentmanagement.repository.StudentRepository;
-import com.example.studentmanagement.Student;
-import java.security.Principal;
+import com.example.studentmanagement.security.CurrentUser;
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5174" }, maxAge = 3600)
 @RestController
@@ -21,18 +30,7 @@ public class MarkController {
     private MarkService markService;
 
     @Autowired
-    private UserRepository userRepository;
-
-    @Autowired
-    private StudentRepository studentRepository;
-
-    private Student getStudentFromPrincipal(Principal principal) {
-        if (principal == null)
-            return null;
-        return userRepository.findByUsername(principal.getName())
-                .flatMap(user -> studentRepository.findByUserId(user.getId()))
-                .orElse(null);
-    }
+    private MarkImportService markImportService;
 
     @PostMapping
     @PreAuthorize("hasRole('STAFF')")
@@ -40,20 +38,58 @@ public class MarkController {
         return markService.addMark(mark);
     }
 
+    // A whole subject/exam-type sheet in one request; existing marks are overwritten
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('STAFF')")
+    public ResponseEntity<?> addBulkMarks(@RequestBody BulkMarksRequest request) {
+        try {
+            return ResponseEntity.ok(markService.markBulk(request));
+        } catch (DataIntegrityViolationException e) {
+            // Another request inserted one of the same marks first; a second pass updates it
+            return ResponseEntity.ok(markService.markBulk(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Queues a CSV mark sheet (the marks export format) and returns its job; poll the job for progress
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('STAFF')")
+    public ResponseEntity<?> importMarks(@RequestParam("file") MultipartFile file, CurrentUser currentUser) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "The file is empty"));
+        }
+        try {
+            MarkImportJob job = markImportService.start(file, currentUser.getUserId());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/marks/import/" + job.getId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("message", "Too many imports are waiting, try again shortly"));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("message", "Could not store the upload: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('STAFF')")
+    public ResponseEntity<?> getImportStatus(@PathVariable("jobId") String jobId) {
+        return markImportService.find(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", "No such import")));
+    }
+
     @GetMapping("/student/{studentId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('STUDENT')")
-    public List<Mark> getMarksByStudent(@PathVariable("studentId") String studentId, Principal principal) {
-        boolean hasPrivilege = userRepository.findByUsername(principal.getName())
-                .map(u -> {
-                    String roleName = u.getRole().name();
-                    return roleName.equals("ADMIN") || roleName.equals("STAFF");
-                }).orElse(false);
-
-        if (!hasPrivilege || studentId.equals("me")) {
-            Student student = getStudentFromPrincipal(principal);
-            if (student == null)
+    public List<Mark> getMarksByStudent(@PathVariable("studentId") String studentId, CurrentUser currentUser) {
+        if (!currentUser.isStaffOrAdmin() || studentId.equals("me")) {
+            if (currentUser.getStudentId() == null)
                 return List.of();
-            return markService.getMarksByStudent(student.getId());
+            return markService.getMarksByStudent(currentUser.getStudentId());
         }
 
         try {
@@ -66,18 +102,11 @@ public class MarkController {
     @GetMapping("/student/{studentId}/type/{type}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('STUDENT')")
     public List<Mark> getMarksByStudentAndType(@PathVariable("studentId") String studentId,
-            @PathVariable("type") String type, Principal principal) {
-        boolean hasPrivilege = userRepository.findByUsername(principal.getName())
-                .map(u -> {
-                    String roleName = u.getRole().name();
-                    return roleName.equals("ADMIN") || roleName.equals("STAFF");
-                }).orElse(false);
-
-        if (!hasPrivilege || studentId.equals("me")) {
-            Student student = getStudentFromPrincipal(principal);
-            if (student == null)
+            @PathVariable("type") String type, CurrentUser currentUser) {
+        if (!currentUser.isStaffOrAdmin() || studentId.equals("me")) {
+            if (currentUser.getStudentId() == null)
                 return List.of();
-            return markService.getMarksByStudentAndType(student.getId(), type);
+            return markService.getMarksByStudentAndType(currentUser.getStudentId(), type);
         }
 
         try {
@@ -2,34 +2,42 @@ package com.example.studentmanagement.controller;
 
 import com.example.studentmanagement.Notification;
 import com.example.studentmanagement.repository.NotificationRepository;
+import com.example.studentmanagement.storage.FileStorage;
+import com.example.studentmanagement.storage.StoredFile;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/notifications")
 @CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5174" }, maxAge = 3600, allowCredentials = "true")
 public class NotificationController {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationController.class);
 
     @Autowired
     private NotificationRepository notificationRepository;
 
-    // Use absolute path in user's home directory
-    private static final String UPLOAD_DIR = System.getProperty("user.home") + File.separator + "student-mgmt-uploads"
-            + File.separator + "notices" + File.separator;
+    @Autowired
+    private FileStorage fileStorage;
 
     @GetMapping
     public List<Notification> getAllNotifications(
@@ -98,25 +106,44 @@ public class NotificationController {
         notification.setActive(true);
 
         if (file != null && !file.isEmpty()) {
-            try {
-                Path uploadPath = Paths.get(UPLOAD_DIR);
-                if (!Files.exists(uploadPath))
-                    Files.createDirectories(uploadPath);
-
+            try (InputStream in = file.getInputStream()) {
+                StoredFile stored = fileStorage.store(in);
                 String originalName = file.getOriginalFilename();
                 String safeName = originalName != null ? originalName.replaceAll("[^a-zA-Z0-9._-]", "_") : "file";
-                String fileName = System.currentTimeMillis() + "_" + safeName;
-
-                Path destination = uploadPath.resolve(fileName);
-                file.transferTo(destination.toFile());
-
-                notification.setFileUrl("/api/files/notices/" + fileName);
+                // The name is only for display and the content type; the digest finds the file
+                notification.setFileDigest(stored.digest());
+                notification.setFileUrl("/api/notifications/files/" + stored.digest() + "/" + safeName);
             } catch (IOException e) {
                 return ResponseEntity.badRequest().body("File upload failed: " + e.getMessage());
             }
         }
 
-        return ResponseEntity.ok(notificationRepository.save(notification));
+        try {
+            return ResponseEntity.ok(notificationRepository.save(notification));
+        } catch (RuntimeException e) {
+            if (notification.getFileDigest() != null) {
+                fileStorage.release(notification.getFileDigest());
+            }
+            throw e;
+        }
+    }
+
+    // Notice attachments are public like the legacy ones under /api/files/notices; content never changes under a digest
+    @GetMapping("/files/{digest}/{name}")
+    public ResponseEntity<?> getAttachment(@PathVariable("digest") String digest,
+            @PathVariable("name") String name) {
+        if (!notificationRepository.existsByFileDigest(digest)) {
+            return ResponseEntity.notFound().build();
+        }
+        FileSystemResource resource = new FileSystemResource(fileStorage.resolve(digest));
+        if (!resource.isReadable()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().filename(name).build().toString())
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic())
+                .body(resource);
     }
 
     @GetMapping("/count")
@@ -136,8 +163,7 @@ public class NotificationController {
             count = notificationRepository.countByTimestampAfterAndActiveTrue(sinceDate);
         }
 
-        System.out.println(
-                "DEBUG: Fetching unread count since " + sinceDate + " for role: " + role + ". Result: " + count);
+        logger.debug("Unread count since {} for role {}: {}", sinceDate, role, count);
         return ResponseEntity.ok(Map.of("count", count));
     }
 
@@ -2,14 +2,19 @@ package com.example.studentmanagement.controller;
 
 import com.example.studentmanagement.User;
 import com.example.studentmanagement.repository.UserRepository;
-import com.example.studentmanagement.security.JwtUtils;
+import com.example.studentmanagement.security.CurrentUser;
+import com.example.studentmanagement.security.TokenIssuer;
+import com.example.studentmanagement.security.TokenVersionRegistry;
+import com.example.studentmanagement.service.AvatarService;
 import com.example.studentmanagement.payload.JwtResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.security.Principal;
@@ -25,7 +30,13 @@ public class ProfileController {
     private UserRepository userRepository;
 
     @Autowired
-    private JwtUtils jwtUtils;
+    private TokenIssuer tokenIssuer;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersions;
+
+    @Autowired
+    private AvatarService avatarService;
 
     @PutMapping
     @PreAuthorize("isAuthenticated()")
@@ -55,10 +66,9 @@ public class ProfileController {
                 user.setEmail(newEmail);
             }
 
-            userRepository.save(user);
-
-            // Generate new JWT token with updated username
-            String newJwt = jwtUtils.generateTokenFromUsername(user.getUsername());
+            // Retire tokens carrying the old username and issue a fresh one
+            user = tokenVersions.bump(user);
+            String newJwt = tokenIssuer.issue(user);
 
             // Return updated JWT response
             return ResponseEntity.ok(new JwtResponse(
@@ -77,8 +87,8 @@ public class ProfileController {
 
     @PostMapping("/avatar")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> uploadAvatar(@RequestParam("file") MultipartFile file, Principal principal) {
-        if (principal == null) {
+    public ResponseEntity<?> uploadAvatar(@RequestParam("file") MultipartFile file, CurrentUser currentUser) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized"));
         }
 
@@ -96,15 +106,7 @@ public class ProfileController {
                         .body(Map.of("message", "Invalid file type. Only JPG, PNG, and GIF are allowed."));
             }
 
-            Optional<User> userOpt = userRepository.findByUsername(principal.getName());
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "User not found"));
-            }
-
-            User user = userOpt.get();
-            user.setProfileImage(file.getBytes());
-            user.setProfileImageType(contentType);
-            userRepository.save(user);
+            avatarService.save(currentUser.getUserId(), contentType, file.getBytes());
 
             return ResponseEntity.ok(Map.of("message", "Profile avatar updated successfully"));
         } catch (Exception e) {
@@ -114,35 +116,44 @@ public class ProfileController {
     }
 
     @GetMapping("/avatar")
-    public ResponseEntity<byte[]> getAvatar(Principal principal) {
-        if (principal == null) {
+    public ResponseEntity<byte[]> getAvatar(CurrentUser currentUser,
+            @RequestParam(value = "size", required = false) Integer size, WebRequest request) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-
-        Optional<User> userOpt = userRepository.findByUsername(principal.getName());
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            if (user.getProfileImage() != null && user.getProfileImageType() != null) {
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_TYPE, user.getProfileImageType())
-                        .body(user.getProfileImage());
-            }
-        }
-        return ResponseEntity.notFound().build();
+        return avatarResponse(currentUser.getUserId(), size, request, CacheControl.noCache().cachePrivate());
     }
 
     @GetMapping("/avatar/{username}")
     public ResponseEntity<byte[]> getAvatarByUsername(
-            @PathVariable("username") @org.springframework.lang.NonNull String username) {
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            if (user.getProfileImage() != null && user.getProfileImageType() != null) {
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_TYPE, user.getProfileImageType())
-                        .body(user.getProfileImage());
-            }
+            @PathVariable("username") @org.springframework.lang.NonNull String username,
+            @RequestParam(value = "size", required = false) Integer size, WebRequest request) {
+        return userRepository.findIdByUsername(username)
+                .map(userId -> avatarResponse(userId, size, request, CacheControl.noCache().cachePublic()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // The URLs are not versioned, so browsers revalidate every time (no-cache) to pick up a new upload.
+    // If-None-Match is answered from the stored hash, so a revalidation never reads the image.
+    private ResponseEntity<byte[]> avatarResponse(@org.springframework.lang.NonNull Long userId, Integer size,
+            WebRequest request, CacheControl cacheControl) {
+        Optional<String> hash = avatarService.findHash(userId, size);
+        if (hash.isPresent() && request.checkNotModified(etag(hash.get()))) {
+            // checkNotModified has already set the ETag on the response
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .build();
         }
-        return ResponseEntity.notFound().build();
+        return avatarService.find(userId, size)
+                .map(avatar -> ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_TYPE, avatar.contentType())
+                        .eTag(etag(avatar.contentHash()))
+                        .cacheControl(cacheControl)
+                        .body(avatar.data()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static String etag(String hash) {
+        return "\"" + hash + "\"";
     }
 }
@@ -3,15 +3,20 @@ package com.example.studentmanagement.controller;
 import com.example.studentmanagement.Role;
 import com.example.studentmanagement.Student;
 import com.example.studentmanagement.User;
+import com.example.studentmanagement.service.ReportCardService;
 import com.example.studentmanagement.service.StudentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import com.example.studentmanagement.repository.UserRepository;
-import java.security.Principal;
+import com.example.studentmanagement.security.CurrentUser;
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(origins = { "http://localhost:5173", "http://localhost:5174" }, maxAge = 3600)
 @RestController
@@ -25,14 +30,13 @@ public class StudentController {
     private PasswordEncoder encoder;
 
     @Autowired
-    private UserRepository userRepository;
+    private ReportCardService reportCardService;
 
-    private Student getStudentFromPrincipal(Principal principal) {
-        if (principal == null)
+    private Student getCurrentStudent(CurrentUser currentUser) {
+        Long studentId = currentUser.getStudentId();
+        if (studentId == null)
             return null;
-        return userRepository.findByUsername(principal.getName())
-                .flatMap(user -> studentService.getStudentByUserId(user.getId()))
-                .orElse(null);
+        return studentService.getStudentById(studentId).orElse(null);
     }
 
     @GetMapping
@@ -43,15 +47,9 @@ public class StudentController {
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('STUDENT')")
-    public Student getStudentById(@PathVariable("id") String id, Principal principal) {
-        boolean hasPrivilege = userRepository.findByUsername(principal.getName())
-                .map(u -> {
-                    String roleName = u.getRole().name();
-                    return roleName.equals("ADMIN") || roleName.equals("STAFF");
-                }).orElse(false);
-
-        if (!hasPrivilege || id.equals("me")) {
-            Student student = getStudentFromPrincipal(principal);
+    public Student getStudentById(@PathVariable("id") String id, CurrentUser currentUser) {
+        if (!currentUser.isStaffOrAdmin() || id.equals("me")) {
+            Student student = getCurrentStudent(currentUser);
             if (student == null)
                 throw new RuntimeException("Authorized student profile not found");
             return student;
@@ -65,18 +63,45 @@ public class StudentController {
         }
     }
 
+    // Marks, attendance, assignments and leaves in one call; "me" for the caller's own card.
+    // Clients revalidate with If-None-Match and get 304 until something changes.
+    @GetMapping("/{id}/report-card")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('STUDENT')")
+    public ResponseEntity<?> getReportCard(@PathVariable("id") String id, CurrentUser currentUser,
+            WebRequest request) {
+        Long studentId;
+        if (!currentUser.isStaffOrAdmin() || id.equals("me")) {
+            studentId = currentUser.getStudentId();
+            if (studentId == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", "Authorized student profile not found"));
+            }
+        } else {
+            try {
+                studentId = Long.valueOf(id);
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Invalid student ID"));
+            }
+        }
+
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        // checkNotModified sets the ETag and 304 status on the response itself
+        if (request.checkNotModified(reportCardService.etag(studentId))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return reportCardService.get(studentId)
+                .<ResponseEntity<?>>map(card -> ResponseEntity.ok().eTag(card.etag()).cacheControl(cacheControl)
+                        .body(card.body()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", "Student not found")));
+    }
+
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('STUDENT')")
     public Student getStudentByUserId(@PathVariable("userId") @org.springframework.lang.NonNull String userId,
-            Principal principal) {
-        boolean hasPrivilege = userRepository.findByUsername(principal.getName())
-                .map(u -> {
-                    String roleName = u.getRole().name();
-                    return roleName.equals("ADMIN") || roleName.equals("STAFF");
-                }).orElse(false);
-
-        if (!hasPrivilege || userId.equals("me")) {
-            Student student = getStudentFromPrincipal(principal);
+            CurrentUser currentUser) {
+        if (!currentUser.isStaffOrAdmin() || userId.equals("me")) {
+            Student student = getCurrentStudent(currentUser);
             if (student == null)
                 throw new RuntimeException("Authorized student profile not found");
             return student;
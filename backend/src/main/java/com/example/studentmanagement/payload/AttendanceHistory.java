@@ -0,0 +1,84 @@
+package com.example.studentmanagement.payload;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A student's attendance as runs of consecutive school days with the same
+ * status. A run covers its start day and the next {@code days - 1} school
+ * days, skipping {@code weekendDays} and {@code holidays}; a school day
+ * without a record ends a run, so expanding the runs gives back exactly the
+ * recorded days. A record on a weekend or holiday starts a run of its own.
+ */
+public class AttendanceHistory {
+    private Long studentId;
+    private List<Run> runs = new ArrayList<>();
+    private Map<String, Object> totals;
+    private Set<DayOfWeek> weekendDays = Set.of();
+    // Holidays that fall inside a run
+    private List<LocalDate> holidays = new ArrayList<>();
+
+    public AttendanceHistory(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public List<Run> getRuns() {
+        return runs;
+    }
+
+    public Map<String, Object> getTotals() {
+        return totals;
+    }
+
+    public void setTotals(Map<String, Object> totals) {
+        this.totals = totals;
+    }
+
+    public Set<DayOfWeek> getWeekendDays() {
+        return weekendDays;
+    }
+
+    public void setWeekendDays(Set<DayOfWeek> weekendDays) {
+        this.weekendDays = weekendDays;
+    }
+
+    public List<LocalDate> getHolidays() {
+        return holidays;
+    }
+
+    public void setHolidays(List<LocalDate> holidays) {
+        this.holidays = holidays;
+    }
+
+    public static class Run {
+        private LocalDate start;
+        private int days;
+        private String status;
+
+        public Run(LocalDate start, int days, String status) {
+            this.start = start;
+            this.days = days;
+            this.status = status;
+        }
+
+        public LocalDate getStart() {
+            return start;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.studentmanagement.payload;
+
+import java.util.List;
+
+/** One subject/exam-type mark sheet: the same max marks for every student on it. */
+public class BulkMarksRequest {
+    private String subject;
+    private String examType;
+    private Integer maxMarks;
+    private List<Entry> entries;
+
+    public static class Entry {
+        private Long studentId;
+        private Integer marksObtained;
+
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        public void setStudentId(Long studentId) {
+            this.studentId = studentId;
+        }
+
+        public Integer getMarksObtained() {
+            return marksObtained;
+        }
+
+        public void setMarksObtained(Integer marksObtained) {
+            this.marksObtained = marksObtained;
+        }
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getExamType() {
+        return examType;
+    }
+
+    public void setExamType(String examType) {
+        this.examType = examType;
+    }
+
+    public Integer getMaxMarks() {
+        return maxMarks;
+    }
+
+    public void setMaxMarks(Integer maxMarks) {
+        this.maxMarks = maxMarks;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<Entry> entries) {
+        this.entries = entries;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.studentmanagement.payload;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Bulk mark totals plus what happened to each row of the sheet, in request order. */
+public class BulkMarksResult extends BulkUpsertResult {
+    private final int rejected;
+    private final List<Row> rows;
+
+    public static class Row {
+        private final Long studentId;
+        private final String outcome; // "inserted", "updated", "unchanged" or "rejected"
+        private final String message;
+
+        public Row(Long studentId, String outcome, String message) {
+            this.studentId = studentId;
+            this.outcome = outcome;
+            this.message = message;
+        }
+
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        public String getOutcome() {
+            return outcome;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public BulkMarksResult(int inserted, int updated, int unchanged, int rejected, List<Row> rows) {
+        super(inserted, updated, unchanged);
+        this.rejected = rejected;
+        this.rows = new ArrayList<>(rows);
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.studentmanagement.payload;
+
+public class BulkUpsertResult {
+    private int inserted;
+    private int updated;
+    private int unchanged;
+
+    public BulkUpsertResult(int inserted, int updated, int unchanged) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.studentmanagement.payload;
+
+/** Opens a resumable upload of one file for an assignment task. */
+public class UploadSessionRequest {
+    private Long taskId;
+    // Staff uploading on a student's behalf; ignored for students
+    private Long studentId;
+    private String fileName;
+    // Ignored; the server works the type out from fileName
+    private String contentType;
+    private Long size;
+    // Preferred chunk size in bytes; the server may adjust it
+    private Integer chunkSize;
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+}
@@ -19,4 +19,24 @@ public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
     List<Assignment> findByStudentIdAndTaskId(Long studentId, Long taskId);
 
     List<Assignment> findAllByOrderBySubmittedAtDesc();
+
+    @org.springframework.data.jpa.repository.Query("SELECT a.id, a.title, a.subject, a.status, a.grade, a.submittedAt, t.deadline FROM Assignment a LEFT JOIN a.task t WHERE a.student.id = :studentId ORDER BY a.submittedAt DESC")
+    List<Object[]> findSummariesByStudentId(@org.springframework.data.repository.query.Param("studentId") Long studentId);
+
+    // {id, studentId, studentName, submissionType, fileName, fileDigest, filePath, submittedAt}, without text content
+    @org.springframework.data.jpa.repository.Query("SELECT a.id, s.id, s.name, a.submissionType, a.fileName, a.fileDigest, a.filePath, a.submittedAt FROM Assignment a JOIN a.student s WHERE a.task.id = :taskId ORDER BY s.name, s.id, a.submittedAt")
+    List<Object[]> findArchiveEntriesByTaskId(@org.springframework.data.repository.query.Param("taskId") Long taskId);
+
+    @org.springframework.data.jpa.repository.Query("SELECT a.content FROM Assignment a WHERE a.id = :id")
+    java.util.Optional<String> findContentById(@org.springframework.data.repository.query.Param("id") Long id);
+
+    // One row per subject and task: {subject, taskId, taskTitle, submissions, graded, gradePointSum, onTime, late, A, B, C, D, F}
+    @org.springframework.data.jpa.repository.Query("SELECT a.subject, t.id, t.title, COUNT(a), COUNT(a.gradePoint), COALESCE(SUM(a.gradePoint), 0),"
+            + " SUM(CASE WHEN a.submittedAt <= t.deadline THEN 1 ELSE 0 END),"
+            + " SUM(CASE WHEN a.submittedAt > t.deadline THEN 1 ELSE 0 END),"
+            + " SUM(CASE WHEN UPPER(a.grade) = 'A' THEN 1 ELSE 0 END), SUM(CASE WHEN UPPER(a.grade) = 'B' THEN 1 ELSE 0 END),"
+            + " SUM(CASE WHEN UPPER(a.grade) = 'C' THEN 1 ELSE 0 END), SUM(CASE WHEN UPPER(a.grade) = 'D' THEN 1 ELSE 0 END),"
+            + " SUM(CASE WHEN UPPER(a.grade) = 'F' THEN 1 ELSE 0 END)"
+            + " FROM Assignment a LEFT JOIN a.task t GROUP BY a.subject, t.id, t.title ORDER BY a.subject, t.id")
+    List<Object[]> aggregateBySubjectAndTask();
 }
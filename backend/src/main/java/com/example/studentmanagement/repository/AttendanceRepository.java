@@ -18,6 +18,29 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
 
     List<Attendance> findByDateBetween(LocalDate startDate, LocalDate endDate);
 
+    @org.springframework.data.jpa.repository.Query("SELECT a.status, COUNT(a) FROM Attendance a WHERE a.student.id = :studentId AND a.date BETWEEN :startDate AND :endDate GROUP BY a.status")
+    List<Object[]> countByStatusForStudent(
+            @org.springframework.data.repository.query.Param("studentId") Long studentId,
+            @org.springframework.data.repository.query.Param("startDate") LocalDate startDate,
+            @org.springframework.data.repository.query.Param("endDate") LocalDate endDate);
+
+    @org.springframework.data.jpa.repository.Query("SELECT a.status, COUNT(a) FROM Attendance a WHERE a.date BETWEEN :startDate AND :endDate GROUP BY a.status")
+    List<Object[]> countByStatus(
+            @org.springframework.data.repository.query.Param("startDate") LocalDate startDate,
+            @org.springframework.data.repository.query.Param("endDate") LocalDate endDate);
+
+    @org.springframework.data.jpa.repository.Query("SELECT a.date, a.status FROM Attendance a WHERE a.student.id = :studentId AND a.date BETWEEN :startDate AND :endDate ORDER BY a.date")
+    List<Object[]> findDateAndStatusForStudent(
+            @org.springframework.data.repository.query.Param("studentId") Long studentId,
+            @org.springframework.data.repository.query.Param("startDate") LocalDate startDate,
+            @org.springframework.data.repository.query.Param("endDate") LocalDate endDate);
+
+    // id, studentId, date, status of existing rows, without loading students
+    @org.springframework.data.jpa.repository.Query("SELECT a.id, a.student.id, a.date, a.status FROM Attendance a WHERE a.student.id IN :studentIds AND a.date IN :dates")
+    List<Object[]> findKeysByStudentIdInAndDateIn(
+            @org.springframework.data.repository.query.Param("studentIds") java.util.Collection<Long> studentIds,
+            @org.springframework.data.repository.query.Param("dates") java.util.Collection<LocalDate> dates);
+
     long countByDateBetweenAndStatus(LocalDate startDate, LocalDate endDate, String status);
 
     long countByDateBetween(LocalDate startDate, LocalDate endDate);
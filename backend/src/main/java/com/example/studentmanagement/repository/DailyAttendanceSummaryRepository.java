@@ -0,0 +1,22 @@
+package com.example.studentmanagement.repository;
+
+import com.example.studentmanagement.DailyAttendanceSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyAttendanceSummaryRepository extends JpaRepository<DailyAttendanceSummary, Long> {
+
+    @org.springframework.data.jpa.repository.Query("SELECT d.status, SUM(d.count) FROM DailyAttendanceSummary d WHERE d.date BETWEEN :startDate AND :endDate GROUP BY d.status")
+    List<Object[]> sumByStatus(
+            @org.springframework.data.repository.query.Param("startDate") LocalDate startDate,
+            @org.springframework.data.repository.query.Param("endDate") LocalDate endDate);
+
+    @org.springframework.data.jpa.repository.Query("SELECT d.date, d.status, SUM(d.count) FROM DailyAttendanceSummary d WHERE d.date BETWEEN :startDate AND :endDate GROUP BY d.date, d.status ORDER BY d.date")
+    List<Object[]> sumByDateAndStatus(
+            @org.springframework.data.repository.query.Param("startDate") LocalDate startDate,
+            @org.springframework.data.repository.query.Param("endDate") LocalDate endDate);
+}
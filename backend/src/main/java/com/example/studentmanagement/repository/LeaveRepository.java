@@ -15,4 +15,7 @@ public interface LeaveRepository extends JpaRepository<Leave, Long> {
     List<Leave> findByStudentIdOrderByAppliedAtDesc(Long studentId);
 
     List<Leave> findAllByOrderByAppliedAtDesc();
+
+    @org.springframework.data.jpa.repository.Query("SELECT l.status, l.startDate, l.endDate FROM Leave l WHERE l.student.id = :studentId")
+    List<Object[]> findStatusAndDatesByStudentId(@org.springframework.data.repository.query.Param("studentId") Long studentId);
 }
@@ -16,6 +16,16 @@ public interface MarkRepository extends JpaRepository<Mark, Long> {
 
     java.util.Optional<Mark> findByStudentIdAndSubjectAndExamType(Long studentId, String subject, String examType);
 
+    // Subjects and exam types must be passed trimmed and lower-cased
+    @org.springframework.data.jpa.repository.Query("SELECT m.id, m.student.id, m.subject, m.examType, m.marksObtained, m.maxMarks FROM Mark m WHERE m.student.id IN :studentIds AND LOWER(TRIM(m.subject)) IN :subjects AND LOWER(TRIM(m.examType)) IN :examTypes")
+    List<Object[]> findKeysByStudentIdInAndSubjectInAndExamTypeIn(
+            @org.springframework.data.repository.query.Param("studentIds") java.util.Collection<Long> studentIds,
+            @org.springframework.data.repository.query.Param("subjects") java.util.Collection<String> subjects,
+            @org.springframework.data.repository.query.Param("examTypes") java.util.Collection<String> examTypes);
+
+    @org.springframework.data.jpa.repository.Query("SELECT m.subject, m.examType, m.marksObtained, m.maxMarks FROM Mark m WHERE m.student.id = :studentId ORDER BY m.subject, m.examType")
+    List<Object[]> findScoresByStudentId(@org.springframework.data.repository.query.Param("studentId") Long studentId);
+
     @org.springframework.data.jpa.repository.Query("SELECT m.subject as subject, AVG(m.marksObtained) as average, AVG(m.maxMarks) as maxAverage FROM Mark m GROUP BY m.subject")
     List<Object[]> findAverageMarksBySubject();
 
@@ -17,4 +17,6 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     long countByTimestampAfterAndActiveTrueAndRecipientRoleIn(java.time.LocalDateTime since, List<String> roles);
 
     long countByTimestampAfterAndActiveTrue(java.time.LocalDateTime since);
+
+    boolean existsByFileDigest(String fileDigest);
 }
@@ -0,0 +1,18 @@
+package com.example.studentmanagement.repository;
+
+import com.example.studentmanagement.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    List<RevokedToken> findByExpiresAtGreaterThan(long now);
+
+    @org.springframework.data.jpa.repository.Modifying
+    @Transactional
+    @org.springframework.data.jpa.repository.Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@org.springframework.data.repository.query.Param("now") long now);
+}
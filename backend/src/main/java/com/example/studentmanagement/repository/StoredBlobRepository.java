@@ -0,0 +1,22 @@
+package com.example.studentmanagement.repository;
+
+import com.example.studentmanagement.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    @org.springframework.data.jpa.repository.Modifying
+    @Transactional
+    @org.springframework.data.jpa.repository.Query("UPDATE StoredBlob b SET b.refCount = b.refCount + :delta WHERE b.digest = :digest")
+    int adjustRefCount(@org.springframework.data.repository.query.Param("digest") String digest,
+            @org.springframework.data.repository.query.Param("delta") int delta);
+
+    // One row: {blobs, bytes on disk, bytes that would be on disk without deduplication}
+    @org.springframework.data.jpa.repository.Query("SELECT COUNT(b), COALESCE(SUM(b.size), 0), COALESCE(SUM(b.size * b.refCount), 0) FROM StoredBlob b")
+    List<Object[]> summarize();
+}
@@ -13,4 +13,12 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     Optional<Student> findByUserId(Long userId);
 
     Boolean existsByEmail(String email);
+
+    @org.springframework.data.jpa.repository.Query("SELECT s.id FROM Student s WHERE s.id IN :ids")
+    java.util.List<Long> findIdsByIdIn(
+            @org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids);
+
+    @org.springframework.data.jpa.repository.Query("SELECT s.id, s.name, s.course FROM Student s WHERE s.id IN :ids")
+    java.util.List<Object[]> findNameAndCourseByIdIn(
+            @org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids);
 }
@@ -0,0 +1,20 @@
+package com.example.studentmanagement.repository;
+
+import com.example.studentmanagement.UserAvatar;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface UserAvatarRepository extends JpaRepository<UserAvatar, Long> {
+
+    @org.springframework.data.jpa.repository.Query("SELECT a.contentHash FROM UserAvatar a WHERE a.userId = :userId")
+    Optional<String> findContentHashByUserId(@org.springframework.data.repository.query.Param("userId") Long userId);
+
+    @org.springframework.data.jpa.repository.Modifying
+    @Transactional
+    @org.springframework.data.jpa.repository.Query("DELETE FROM UserAvatar a WHERE a.userId = :userId")
+    void deleteByUserId(@org.springframework.data.repository.query.Param("userId") Long userId);
+}
@@ -0,0 +1,27 @@
+package com.example.studentmanagement.repository;
+
+import com.example.studentmanagement.UserAvatarVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserAvatarVariantRepository extends JpaRepository<UserAvatarVariant, Long> {
+
+    Optional<UserAvatarVariant> findByUserIdAndSizePx(Long userId, Integer sizePx);
+
+    @org.springframework.data.jpa.repository.Query("SELECT v.sizePx FROM UserAvatarVariant v WHERE v.userId = :userId ORDER BY v.sizePx")
+    List<Integer> findSizesByUserId(@org.springframework.data.repository.query.Param("userId") Long userId);
+
+    @org.springframework.data.jpa.repository.Query("SELECT v.contentHash FROM UserAvatarVariant v WHERE v.userId = :userId AND v.sizePx = :sizePx")
+    Optional<String> findContentHashByUserIdAndSizePx(@org.springframework.data.repository.query.Param("userId") Long userId,
+            @org.springframework.data.repository.query.Param("sizePx") Integer sizePx);
+
+    @org.springframework.data.jpa.repository.Modifying
+    @Transactional
+    @org.springframework.data.jpa.repository.Query("DELETE FROM UserAvatarVariant v WHERE v.userId = :userId")
+    void deleteByUserId(@org.springframework.data.repository.query.Param("userId") Long userId);
+}
@@ -15,4 +15,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     long countByRole(com.example.studentmanagement.Role role);
 
     java.util.List<User> findByRole(com.example.studentmanagement.Role role);
+
+    @org.springframework.data.jpa.repository.Query("SELECT u.id, u.tokenVersion FROM User u")
+    java.util.List<Object[]> findAllTokenVersions();
+
+    @org.springframework.data.jpa.repository.Query("SELECT u.id, u.role, s.id, f.id FROM User u LEFT JOIN Student s ON s.id = u.id LEFT JOIN Staff f ON f.id = u.id WHERE u.username = :username")
+    java.util.List<Object[]> findIdentityByUsername(
+            @org.springframework.data.repository.query.Param("username") String username);
+
+    @org.springframework.data.jpa.repository.Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@org.springframework.data.repository.query.Param("username") String username);
+
+    @org.springframework.data.jpa.repository.Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@org.springframework.data.repository.query.Param("id") Long id);
 }
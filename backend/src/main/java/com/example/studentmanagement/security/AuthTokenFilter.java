@@ -6,80 +6,92 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.example.studentmanagement.config.TraceSampler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
+import java.util.List;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
+
     private final JwtUtils jwtUtils;
-    private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersions;
+    private final TokenRevocationList revocations;
+    private final TraceSampler traceSampler;
 
-    public AuthTokenFilter(JwtUtils jwtUtils, CustomUserDetailsService userDetailsService) {
+    public AuthTokenFilter(JwtUtils jwtUtils, TokenVersionRegistry tokenVersions, TokenRevocationList revocations,
+            TraceSampler traceSampler) {
         this.jwtUtils = jwtUtils;
-        this.userDetailsService = userDetailsService;
-        System.out.println("DEBUG: AuthTokenFilter bean initialized with dependencies!");
+        this.tokenVersions = tokenVersions;
+        this.revocations = revocations;
+        this.traceSampler = traceSampler;
     }
 
-    private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
-
     @Override
     protected void doFilterInternal(
             @org.springframework.lang.NonNull HttpServletRequest request,
             @org.springframework.lang.NonNull HttpServletResponse response,
             @org.springframework.lang.NonNull FilterChain filterChain)
             throws ServletException, IOException {
+        // Decided once per request; false whenever debug logging is off
+        boolean trace = logger.isDebugEnabled() && traceSampler.sample();
         try {
-            String uri = request.getRequestURI();
-            System.out.println("DEBUG: Filter processing URI: " + uri);
             String jwt = parseJwt(request);
 
             if (jwt != null) {
-                System.out.println("DEBUG: JWT found: " + (jwt.length() > 20 ? jwt.substring(0, 20) + "..." : jwt));
-                boolean valid = jwtUtils.validateJwtToken(jwt);
-                System.out.println("DEBUG: JWT valid? " + valid);
+                VerifiedToken verified = jwtUtils.verify(jwt);
 
-                if (valid) {
-                    String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                    System.out.println("DEBUG: JWT Username: " + username);
-
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    System.out.println("DEBUG: UserDetails loaded for: " + username + " with authorities: "
-                            + userDetails.getAuthorities());
+                if (verified != null && isCurrent(verified)) {
+                    JwtPrincipal principal = verified.toPrincipal();
+                    List<GrantedAuthority> authorities = List
+                            .of(new SimpleGrantedAuthority("ROLE_" + principal.getRole().name()));
 
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
+                            principal, null, authorities);
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                     SecurityContext context = SecurityContextHolder.createEmptyContext();
                     context.setAuthentication(authentication);
                     SecurityContextHolder.setContext(context);
 
-                    System.out.println("DEBUG: SecurityContext successfully updated for user: " + username);
-                } else {
-                    System.out.println("DEBUG: JWT validation failed.");
+                    if (trace) {
+                        logger.debug("auth uri={} user={} authorities={}", request.getRequestURI(),
+                                principal.getName(), authorities);
+                    }
+                } else if (trace) {
+                    logger.debug("auth uri={} token rejected valid={}", request.getRequestURI(), verified != null);
                 }
-            } else {
-                System.out.println("DEBUG: No JWT found in Authorization header or 'token' parameter. URI: " + uri);
-                System.out.println("DEBUG: Auth Header: " + request.getHeader("Authorization"));
-                System.out.println("DEBUG: All Params: " + request.getParameterMap().keySet());
+            } else if (trace) {
+                logger.debug("auth uri={} no token", request.getRequestURI());
             }
         } catch (Exception e) {
-            System.out.println("DEBUG: ERROR in AuthTokenFilter: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Cannot set user authentication for {}", request.getRequestURI(), e);
         }
 
         filterChain.doFilter(request, response);
     }
 
+    // Rejects tokens without identity claims, tokens that were logged out and
+    // tokens issued before the user's last role/username change
+    private boolean isCurrent(VerifiedToken verified) {
+        if (!verified.hasIdentityClaims() || revocations.isRevoked(verified.getTokenId())) {
+            return false;
+        }
+        Integer current = tokenVersions.current(verified.getUserId());
+        return current != null && current.equals(verified.getVersion());
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -0,0 +1,54 @@
+package com.example.studentmanagement.security;
+
+import com.example.studentmanagement.Role;
+
+/**
+ * The authenticated caller, injected into controller methods by
+ * {@link CurrentUserArgumentResolver}. Resolved once per request.
+ */
+public final class CurrentUser {
+
+    private final Long userId;
+    private final String username;
+    private final Role role;
+    private final Long studentId;
+    private final Long staffId;
+
+    public CurrentUser(Long userId, String username, Role role, Long studentId, Long staffId) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.studentId = studentId;
+        this.staffId = staffId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    // Id of the linked student record, or null if the user has none
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    // Id of the linked staff record, or null if the user has none
+    public Long getStaffId() {
+        return staffId;
+    }
+
+    public boolean isStaff() {
+        return role == Role.STAFF;
+    }
+
+    public boolean isStaffOrAdmin() {
+        return role == Role.STAFF || role == Role.ADMIN;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.studentmanagement.security;
+
+import com.example.studentmanagement.Role;
+import com.example.studentmanagement.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.List;
+
+/**
+ * Resolves {@link CurrentUser} controller parameters. Token-authenticated
+ * requests are answered from the JWT claims with no query; any other
+ * authentication costs a single lookup. The result is memoized on the
+ * request so several parameters or nested calls share it.
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String REQUEST_ATTRIBUTE = CurrentUser.class.getName();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return CurrentUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object memoized = webRequest.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memoized != null) {
+            return memoized;
+        }
+        CurrentUser currentUser = resolve(SecurityContextHolder.getContext().getAuthentication());
+        if (currentUser != null) {
+            webRequest.setAttribute(REQUEST_ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+        }
+        return currentUser;
+    }
+
+    private CurrentUser resolve(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return new CurrentUser(principal.getUserId(), principal.getName(), principal.getRole(),
+                    principal.getStudentId(), principal.getStaffId());
+        }
+        List<Object[]> rows = userRepository.findIdentityByUsername(authentication.getName());
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        return new CurrentUser((Long) row[0], authentication.getName(), (Role) row[1], (Long) row[2],
+                (Long) row[3]);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.studentmanagement.security;
+
+import com.example.studentmanagement.Role;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Principal built straight from token claims. {@link #getName()} is the
+ * username, so code reading {@code Principal.getName()} keeps working.
+ */
+public final class JwtPrincipal implements AuthenticatedPrincipal {
+
+    private final Long userId;
+    private final String username;
+    private final Role role;
+    private final Long studentId;
+    private final Long staffId;
+    private final String tokenId;
+    private final long expiresAtMillis;
+
+    public JwtPrincipal(Long userId, String username, Role role, Long studentId, Long staffId, String tokenId,
+            long expiresAtMillis) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.studentId = studentId;
+        this.staffId = staffId;
+        this.tokenId = tokenId;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public Long getStaffId() {
+        return staffId;
+    }
+
+    // Id and expiry of the token this request was authenticated with, for logout
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
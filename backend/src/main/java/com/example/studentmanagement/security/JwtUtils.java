@@ -1,64 +1,111 @@
 package com.example.studentmanagement.security;
 
+import com.example.studentmanagement.Role;
+import com.example.studentmanagement.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
-import org.springframework.security.core.Authentication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtils {
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_STUDENT_ID = "sid";
+    private static final String CLAIM_STAFF_ID = "fid";
+    private static final String CLAIM_VERSION = "ver";
 
     private String jwtSecret = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970"; // 256-bit secret
     private int jwtExpirationMs = 86400000; // 24 hours
+    private int verifiedTokenCacheSize = 10000;
 
-    public String generateJwtToken(Authentication authentication) {
-
-        String username = authentication.getName();
+    // Built once; both are immutable and thread-safe
+    private final Key key;
+    private final JwtParser parser;
+    private final VerifiedTokenCache verifiedTokens;
 
-        return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
-                .compact();
+    public JwtUtils() {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedTokens = new VerifiedTokenCache(verifiedTokenCacheSize);
     }
 
-    public String generateTokenFromUsername(String username) {
-        return Jwts.builder()
-                .setSubject(username)
+    /**
+     * Issues a token that carries everything the request filter needs to
+     * authenticate without loading the user: id, role, linked student/staff
+     * ids and the user's current token version. Each token gets a unique id
+     * (jti) so it can be revoked on its own.
+     */
+    public String generateJwtToken(User user, Long studentId, Long staffId) {
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_VERSION, user.getTokenVersion())
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
-                .compact();
-    }
-
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
-
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
+        if (studentId != null) {
+            builder.claim(CLAIM_STUDENT_ID, studentId);
+        }
+        if (staffId != null) {
+            builder.claim(CLAIM_STAFF_ID, staffId);
+        }
+        return builder.signWith(key, SignatureAlgorithm.HS256).compact();
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Verifies the token's signature and expiry, returning its claims, or
+     * null if the token is not valid. Tokens seen before are
+     * answered from the cache without any parsing or HMAC work.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokens.get(token);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            String role = claims.get(CLAIM_ROLE, String.class);
+            VerifiedToken verified = new VerifiedToken(claims.getId(), claims.getSubject(),
+                    expiration != null ? expiration.getTime() : System.currentTimeMillis() + jwtExpirationMs,
+                    claims.get(CLAIM_USER_ID, Long.class),
+                    role != null ? Role.valueOf(role) : null,
+                    claims.get(CLAIM_STUDENT_ID, Long.class),
+                    claims.get(CLAIM_STAFF_ID, Long.class),
+                    claims.get(CLAIM_VERSION, Integer.class));
+            verifiedTokens.put(token, verified);
+            return verified;
         } catch (MalformedJwtException e) {
-            System.err.println("Invalid JWT token: " + e.getMessage());
+            logger.debug("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            System.err.println("JWT token is expired: " + e.getMessage());
+            logger.debug("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            System.err.println("JWT token is unsupported: " + e.getMessage());
+            logger.debug("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
-            System.err.println("JWT claims string is empty: " + e.getMessage());
+            logger.debug("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.debug("JWT signature check failed: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.getSubject() : null;
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return verify(authToken) != null;
     }
 }
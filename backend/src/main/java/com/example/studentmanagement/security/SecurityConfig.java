@@ -1,6 +1,8 @@
 package com.example.studentmanagement.security;
 
+import com.example.studentmanagement.config.TraceSampler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
@@ -16,11 +18,8 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -34,7 +33,10 @@ import java.util.List;
 public class SecurityConfig {
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private CustomUserDetailsService userDetailsService;
+
+    @Value("${app.security.bcrypt-strength:10}")
+    private int bcryptStrength;
 
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
@@ -75,6 +77,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Rehash on login when the configured work factor has been raised
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -84,24 +88,26 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public TimedPasswordEncoder passwordEncoder() {
+        return new TimedPasswordEncoder(bcryptStrength);
     }
 
     @Bean
     public WebSecurityCustomizer webSecurityCustomizer() {
-        return (web) -> web.ignoring().requestMatchers("/api/assignments/preview/**", "/api/assignments/download/**");
+        // Signed file links carry their own HMAC credential, so they skip the filter chain
+        return (web) -> web.ignoring().requestMatchers("/api/assignments/files");
     }
 
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter(JwtUtils jwtUtils,
-            CustomUserDetailsService userDetailsService) {
-        return new AuthTokenFilter(jwtUtils, userDetailsService);
+            TokenVersionRegistry tokenVersions, TokenRevocationList revocations, TraceSampler traceSampler) {
+        return new AuthTokenFilter(jwtUtils, tokenVersions, revocations, traceSampler);
     }
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http, JwtUtils jwtUtils,
-            CustomUserDetailsService userDetailsService) throws Exception {
+            TokenVersionRegistry tokenVersions, TokenRevocationList revocations, TraceSampler traceSampler)
+            throws Exception {
         http.csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
@@ -109,17 +115,17 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/test/**").permitAll()
-                        .requestMatchers("/api/files/**").permitAll()
-                        .requestMatchers("/api/assignments/preview/**").permitAll()
-                        .requestMatchers("/api/assignments/download/**").permitAll()
+                        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/files/notices/**",
+                                "/api/files/announcements/**").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/profile/avatar/**").permitAll()
+                        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/notifications/files/**").permitAll()
                         .requestMatchers("/api/announcements/**").hasAnyRole("ADMIN", "STAFF")
                         .requestMatchers("/error").permitAll()
                         .anyRequest().authenticated());
 
         http.authenticationProvider(authenticationProvider());
 
-        http.addFilterBefore(authenticationJwtTokenFilter(jwtUtils, userDetailsService),
+        http.addFilterBefore(authenticationJwtTokenFilter(jwtUtils, tokenVersions, revocations, traceSampler),
                 org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
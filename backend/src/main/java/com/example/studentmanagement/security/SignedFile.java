@@ -0,0 +1,67 @@
+package com.example.studentmanagement.security;
+
+/**
+ * What a signed link grants: one file, served with the given content type,
+ * name and disposition, until the expiry.
+ */
+public final class SignedFile {
+
+    private static final String SEPARATOR = "\n";
+
+    private final String path;
+    private final String contentType;
+    private final String fileName;
+    private final boolean inline;
+    private final long expiresAtSeconds;
+
+    public SignedFile(String path, String contentType, String fileName, boolean inline, long expiresAtSeconds) {
+        this.path = path;
+        this.contentType = contentType;
+        this.fileName = fileName;
+        this.inline = inline;
+        this.expiresAtSeconds = expiresAtSeconds;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public boolean isInline() {
+        return inline;
+    }
+
+    public long getExpiresAtSeconds() {
+        return expiresAtSeconds;
+    }
+
+    // Newlines can't appear in any field (names are stripped of them), so
+    // they are a safe separator
+    String encode() {
+        return String.join(SEPARATOR, String.valueOf(expiresAtSeconds), inline ? "i" : "a", contentType,
+                strip(fileName), path);
+    }
+
+    static SignedFile decode(String value) {
+        String[] parts = value.split(SEPARATOR, 5);
+        if (parts.length != 5) {
+            return null;
+        }
+        try {
+            return new SignedFile(parts[4], parts[2], parts[3], "i".equals(parts[1]), Long.parseLong(parts[0]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String strip(String value) {
+        return value == null ? "" : value.replace('\n', ' ').replace('\r', ' ');
+    }
+}
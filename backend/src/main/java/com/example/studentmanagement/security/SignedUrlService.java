@@ -0,0 +1,99 @@
+package com.example.studentmanagement.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Mints and checks short-lived links to stored files. The token carries
+ * everything needed to serve the file (path, content type, name,
+ * disposition, expiry) plus an HMAC-SHA256 over all of it, so serving a
+ * link needs neither the database nor a JWT.
+ *
+ * Without {@code app.signed-url.secret} a random key is generated at
+ * startup, which simply invalidates outstanding links on restart.
+ */
+@Component
+public class SignedUrlService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    private final ThreadLocal<Mac> macs;
+
+    public SignedUrlService(@Value("${app.signed-url.secret:}") String secret,
+            @Value("${app.signed-url.ttl-seconds:300}") long ttlSeconds) {
+        byte[] keyBytes;
+        if (secret.isEmpty()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public String sign(SignedFile file) {
+        String payload = ENCODER.encodeToString(file.encode().getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(mac(payload));
+    }
+
+    /**
+     * Returns the file described by the token, or null if the token was
+     * tampered with, is malformed or has expired.
+     */
+    public SignedFile verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return null;
+        }
+        String payload = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            // Constant-time comparison so timing reveals nothing about the expected MAC
+            if (!MessageDigest.isEqual(mac(payload), signature)) {
+                return null;
+            }
+            SignedFile file = SignedFile.decode(new String(DECODER.decode(payload), StandardCharsets.UTF_8));
+            if (file == null || file.getExpiresAtSeconds() < System.currentTimeMillis() / 1000) {
+                return null;
+            }
+            return file;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] mac(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.studentmanagement.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BCrypt encoder that records how long hashing takes. Stored hashes with a
+ * lower work factor than the configured one report
+ * {@link #upgradeEncoding(String)} so they get rehashed on the next login.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    public TimedPasswordEncoder(int strength) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long start = System.nanoTime();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public Map<String, Object> metrics() {
+        long count = hashCount.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("workFactor", strength);
+        metrics.put("hashCount", count);
+        metrics.put("averageHashMillis", count > 0 ? hashNanos.sum() / count / 1_000_000.0 : 0.0);
+        metrics.put("maxHashMillis", maxHashNanos.get() / 1_000_000.0);
+        return metrics;
+    }
+
+    private void record(long nanos) {
+        hashCount.increment();
+        hashNanos.add(nanos);
+        maxHashNanos.accumulateAndGet(nanos, Math::max);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.studentmanagement.security;
+
+import com.example.studentmanagement.User;
+import com.example.studentmanagement.repository.StaffRepository;
+import com.example.studentmanagement.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Issues tokens for a user, resolving the linked student/staff record once
+ * at sign-in so later requests don't have to.
+ */
+@Component
+public class TokenIssuer {
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StaffRepository staffRepository;
+
+    public String issue(User user) {
+        // Student and Staff share the user's primary key (@MapsId)
+        Long studentId = studentRepository.existsById(user.getId()) ? user.getId() : null;
+        Long staffId = staffRepository.existsById(user.getId()) ? user.getId() : null;
+        return jwtUtils.generateJwtToken(user, studentId, staffId);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.studentmanagement.security;
+
+import com.example.studentmanagement.RevokedToken;
+import com.example.studentmanagement.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ids of tokens revoked before their expiry (logout). Lookups are answered
+ * from memory: a bloom filter rules out almost every live token with a few
+ * bit reads, and only possible hits go to the exact map. Revocations are
+ * persisted so the list survives a restart, and entries are dropped once
+ * the token would have expired anyway.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final int HASHES = 4;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private final int bloomBits;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloom;
+
+    public TokenRevocationList(@Value("${app.security.revocation-bloom-bits:1048576}") int bloomBits) {
+        this.bloomBits = Math.max(Long.SIZE, bloomBits);
+        this.bloom = new BloomFilter(this.bloomBits);
+    }
+
+    @PostConstruct
+    void load() {
+        try {
+            for (RevokedToken token : revokedTokenRepository.findByExpiresAtGreaterThan(System.currentTimeMillis())) {
+                revoked.put(token.getTokenId(), token.getExpiresAt());
+            }
+            rebuild();
+            logger.info("Loaded {} revoked tokens", revoked.size());
+        } catch (Exception e) {
+            logger.warn("Could not load revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !bloom.mightContain(tokenId)) {
+            return false;
+        }
+        return revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes the token until {@code expiresAtMillis}. Synchronized with
+     * {@link #purge()} so a revocation can't be lost while the bloom filter
+     * is being rebuilt.
+     */
+    public synchronized void revoke(String tokenId, long expiresAtMillis) {
+        if (tokenId == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        RevokedToken entity = new RevokedToken();
+        entity.setTokenId(tokenId);
+        entity.setExpiresAt(expiresAtMillis);
+        revokedTokenRepository.save(entity);
+
+        revoked.put(tokenId, expiresAtMillis);
+        bloom.add(tokenId);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    // Expired entries can't match a valid token any more; dropping them and
+    // rebuilding keeps the bloom filter's false positive rate low
+    @Scheduled(fixedDelayString = "${app.security.revocation-purge-ms:3600000}")
+    public synchronized void purge() {
+        long now = System.currentTimeMillis();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        rebuild();
+        try {
+            revokedTokenRepository.deleteExpired(now);
+        } catch (Exception e) {
+            logger.warn("Could not purge expired revoked tokens: {}", e.getMessage());
+        }
+        if (before != revoked.size()) {
+            logger.info("Purged {} expired revoked tokens", before - revoked.size());
+        }
+    }
+
+    private void rebuild() {
+        BloomFilter next = new BloomFilter(bloomBits);
+        revoked.keySet().forEach(next::add);
+        bloom = next;
+    }
+
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final int bits;
+
+        BloomFilter(int bits) {
+            this.words = new AtomicLongArray((bits + Long.SIZE - 1) / Long.SIZE);
+            this.bits = words.length() * Long.SIZE;
+        }
+
+        void add(String key) {
+            int h1 = key.hashCode();
+            int h2 = secondHash(key);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bits);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String key) {
+            int h1 = key.hashCode();
+            int h2 = secondHash(key);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a, forced odd so successive probes never collapse onto one bit
+        private static int secondHash(String key) {
+            int h = 0x811c9dc5;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x01000193;
+            }
+            return h | 1;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.studentmanagement.security;
+
+import com.example.studentmanagement.User;
+import com.example.studentmanagement.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of every user's token version. Tokens carry the version
+ * they were issued with and are rejected once it no longer matches, so a
+ * role or username change invalidates old tokens without a per-request query.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Cached in place of a version for users that do not exist, so their tokens never reach the database again
+    private static final Integer MISSING = Integer.MIN_VALUE;
+
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void load() {
+        try {
+            for (Object[] row : userRepository.findAllTokenVersions()) {
+                versions.put((Long) row[0], (Integer) row[1]);
+            }
+            logger.info("Loaded token versions for {} users", versions.size());
+        } catch (Exception e) {
+            logger.warn("Could not preload token versions, falling back to lazy lookup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Current version for the user, or null if the user no longer exists.
+     * Users created after startup, and ids with no user, are looked up once
+     * and then kept.
+     */
+    public Integer current(Long userId) {
+        Integer version = versions.get(userId);
+        if (version == null) {
+            Integer loaded = userRepository.findTokenVersionById(userId).orElse(MISSING);
+            // Never overwrite a value bump(), forget() or created() wrote while we were reading
+            Integer existing = versions.putIfAbsent(userId, loaded);
+            version = existing != null ? existing : loaded;
+        }
+        return MISSING.equals(version) ? null : version;
+    }
+
+    /**
+     * Saves the user with an incremented token version, rejecting every token
+     * issued before this call.
+     */
+    public User bump(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        User saved = userRepository.save(user);
+        versions.put(saved.getId(), saved.getTokenVersion());
+        return saved;
+    }
+
+    /**
+     * Marks a deleted user as missing once its transaction commits, so the
+     * user's tokens are rejected without another lookup.
+     */
+    public void forget(Long userId) {
+        afterCommit(() -> versions.put(userId, MISSING));
+    }
+
+    /**
+     * Drops a cached miss for a newly created user once its transaction
+     * commits, so the next lookup finds the user.
+     */
+    public void created(Long userId) {
+        afterCommit(() -> versions.remove(userId, MISSING));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.studentmanagement.security;
+
+import com.example.studentmanagement.User;
+import com.example.studentmanagement.service.AvatarService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Keeps in-memory state about users in step with the users table, however a
+ * user is saved or removed (directly or cascaded from a student or staff
+ * record): the {@link TokenVersionRegistry} learns of new and deleted users,
+ * and a deleted user's avatar is dropped. Collaborators are looked up lazily
+ * because Hibernate creates listeners while their repositories are still
+ * being set up.
+ */
+public class UserLifecycleListener {
+
+    @Autowired
+    private ObjectProvider<TokenVersionRegistry> tokenVersions;
+
+    @Autowired
+    private ObjectProvider<AvatarService> avatars;
+
+    @PostPersist
+    void created(User user) {
+        tokenVersions.getObject().created(user.getId());
+    }
+
+    @PostRemove
+    void deleted(User user) {
+        tokenVersions.getObject().forget(user.getId());
+        avatars.getObject().delete(user.getId());
+    }
+}
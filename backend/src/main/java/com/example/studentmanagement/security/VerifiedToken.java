@@ -0,0 +1,78 @@
+package com.example.studentmanagement.security;
+
+import com.example.studentmanagement.Role;
+
+/**
+ * Result of a successful signature check on a JWT. Held by
+ * {@link VerifiedTokenCache} so repeat requests with the same token skip
+ * parsing and HMAC verification.
+ */
+public final class VerifiedToken {
+
+    private final String tokenId;
+    private final String subject;
+    private final long expiresAtMillis;
+    private final Long userId;
+    private final Role role;
+    private final Long studentId;
+    private final Long staffId;
+    private final Integer version;
+
+    public VerifiedToken(String tokenId, String subject, long expiresAtMillis, Long userId, Role role, Long studentId,
+            Long staffId, Integer version) {
+        this.tokenId = tokenId;
+        this.subject = subject;
+        this.expiresAtMillis = expiresAtMillis;
+        this.userId = userId;
+        this.role = role;
+        this.studentId = studentId;
+        this.staffId = staffId;
+        this.version = version;
+    }
+
+    // The jti claim; null for tokens issued before ids were added
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public Long getStaffId() {
+        return staffId;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    // Tokens issued before identity claims were added carry only a subject
+    public boolean hasIdentityClaims() {
+        return userId != null && role != null && version != null;
+    }
+
+    public JwtPrincipal toPrincipal() {
+        return new JwtPrincipal(userId, subject, role, studentId, staffId, tokenId, expiresAtMillis);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.studentmanagement.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of tokens whose signature has already been verified.
+ *
+ * Entries are keyed by the full compact token, so a hit means this exact
+ * header, payload and signature were verified before and the cached claims
+ * are returned without hashing anything again. Entries drop out once the
+ * token expires.
+ */
+public class VerifiedTokenCache {
+
+    private final int maxEntries;
+    private final Map<String, VerifiedToken> entries = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public VerifiedToken get(String token) {
+        VerifiedToken cached = entries.get(token);
+        if (cached != null && cached.isExpired(System.currentTimeMillis())) {
+            entries.remove(token, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(token, verified);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Drop expired entries first; if the cache is still full, make room by
+    // discarding an arbitrary tenth of it.
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(v -> v.isExpired(now));
+        int excess = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.repository.AssignmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grade and punctuality figures for assignment submissions, per task and
+ * per subject. The database does the grouping in a single query over
+ * assignments.grade_point; subjects are rolled up here from the per-task
+ * rows, of which there are only as many as there are tasks.
+ */
+@Service
+public class AssignmentAnalyticsService {
+
+    private static final String[] LETTERS = { "A", "B", "C", "D", "F" };
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    // submissions, graded, onTime, late, A..F
+    private static final class Totals {
+        final long[] counts = new long[4 + LETTERS.length];
+        double gradePoints;
+
+        void add(Object[] row) {
+            for (int i = 0; i < counts.length; i++) {
+                int column = i < 2 ? 3 + i : 4 + i;
+                counts[i] += row[column] != null ? ((Number) row[column]).longValue() : 0;
+            }
+            gradePoints += ((Number) row[5]).doubleValue();
+        }
+
+        Map<String, Object> toMap(Map<String, Object> map) {
+            long graded = counts[1];
+            // submissionCount and averageGrade cover graded submissions, as they always have
+            map.put("averageGrade", graded > 0 ? gradePoints / graded : 0.0);
+            map.put("submissionCount", graded);
+            map.put("totalSubmissions", counts[0]);
+            map.put("onTime", counts[2]);
+            map.put("late", counts[3]);
+            Map<String, Long> distribution = new LinkedHashMap<>();
+            long lettered = 0;
+            for (int i = 0; i < LETTERS.length; i++) {
+                distribution.put(LETTERS[i], counts[4 + i]);
+                lettered += counts[4 + i];
+            }
+            distribution.put("other", graded - lettered);
+            map.put("gradeDistribution", distribution);
+            return map;
+        }
+    }
+
+    /** One entry per subject that has graded submissions. */
+    public List<Map<String, Object>> bySubject() {
+        Map<String, Totals> subjects = new LinkedHashMap<>();
+        for (Object[] row : assignmentRepository.aggregateBySubjectAndTask()) {
+            subjects.computeIfAbsent((String) row[0], s -> new Totals()).add(row);
+        }
+        List<Map<String, Object>> stats = new ArrayList<>();
+        subjects.forEach((subject, totals) -> {
+            if (totals.counts[1] > 0) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("subject", subject);
+                stats.add(totals.toMap(entry));
+            }
+        });
+        return stats;
+    }
+
+    /** One entry per task with submissions; submissions without a task are grouped under a null taskId. */
+    public List<Map<String, Object>> byTask() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (Object[] row : assignmentRepository.aggregateBySubjectAndTask()) {
+            Totals totals = new Totals();
+            totals.add(row);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("taskId", row[1]);
+            entry.put("title", row[2]);
+            entry.put("subject", row[0]);
+            stats.add(totals.toMap(entry));
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.studentmanagement.service;
+
+import java.time.LocalDate;
+
+/**
+ * One attendance write: the student's status on a day went from
+ * {@code previousStatus} (null if there was no row) to {@code status}.
+ */
+public record AttendanceChange(Long studentId, LocalDate date, String previousStatus, String status) {
+}
@@ -0,0 +1,59 @@
+package com.example.studentmanagement.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Attendance totals per status for a student or class over some period.
+ */
+public class AttendanceCounts {
+
+    private final long present;
+    private final long absent;
+    private final long late;
+    private final long leave;
+
+    public AttendanceCounts(long present, long absent, long late, long leave) {
+        this.present = present;
+        this.absent = absent;
+        this.late = late;
+        this.leave = leave;
+    }
+
+    public long getPresent() {
+        return present;
+    }
+
+    public long getAbsent() {
+        return absent;
+    }
+
+    public long getLate() {
+        return late;
+    }
+
+    public long getLeave() {
+        return leave;
+    }
+
+    public long getTotal() {
+        return present + absent + late + leave;
+    }
+
+    // Percentage of marked days the student was present
+    public double getRate() {
+        long total = getTotal();
+        return total > 0 ? (double) present / total * 100 : 0;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("present", present);
+        map.put("absent", absent);
+        map.put("late", late);
+        map.put("leave", leave);
+        map.put("total", getTotal());
+        map.put("rate", Math.round(getRate() * 10.0) / 10.0);
+        return map;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.studentmanagement.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory attendance bitmaps. Every student gets one small bitset per
+ * half-year term for each status (Present, Absent, Late, Leave), with bit
+ * {@code n} meaning day {@code n} of the term. A term has at most 184
+ * days, so a student-term costs 4 statuses x 3 longs; rates over any date
+ * range are a handful of masked popcounts.
+ *
+ * The index is built once the application is ready and then kept in step
+ * with writes via {@link #record}. Until {@link #isReady()} is true,
+ * callers should fall back to the database.
+ */
+@Component
+public class AttendanceIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceIndex.class);
+
+    static final String[] STATUSES = { "Present", "Absent", "Late", "Leave" };
+    private static final int WORDS_PER_STATUS = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // studentId -> termId -> bits
+    private volatile Map<Long, Map<Integer, long[]>> students = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    // Writes that arrive while the index is being built; replayed on top of it
+    private final List<Object[]> pending = new ArrayList<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        try {
+            long start = System.currentTimeMillis();
+            Map<Long, Map<Integer, long[]>> built = new ConcurrentHashMap<>();
+            int[] rows = { 0 };
+            jdbcTemplate.query("SELECT student_id, date, status FROM attendance", rs -> {
+                java.sql.Date date = rs.getDate(2);
+                if (date != null) {
+                    set(built, rs.getLong(1), date.toLocalDate(), rs.getString(3));
+                    rows[0]++;
+                }
+            });
+            synchronized (pending) {
+                for (Object[] write : pending) {
+                    set(built, (Long) write[0], (LocalDate) write[1], (String) write[2]);
+                }
+                pending.clear();
+                students = built;
+                ready = true;
+            }
+            logger.info("Attendance index built from {} rows for {} students in {} ms", rows[0], built.size(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.warn("Could not build attendance index, rates will be computed from the database: {}",
+                    e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Records a status change. Inside a transaction the index is only updated
+     * once it commits, so a rollback leaves it untouched. A null status clears
+     * the day.
+     */
+    public void record(Long studentId, LocalDate date, String status) {
+        if (studentId == null || date == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(studentId, date, status);
+                }
+            });
+        } else {
+            apply(studentId, date, status);
+        }
+    }
+
+    /**
+     * Counts for one student, inclusive of both bounds. Null bounds mean
+     * unbounded.
+     */
+    public AttendanceCounts countsForStudent(Long studentId, LocalDate from, LocalDate to) {
+        long[] totals = new long[STATUSES.length];
+        Map<Integer, long[]> terms = students.get(studentId);
+        if (terms != null) {
+            addCounts(terms, from, to, totals);
+        }
+        return toCounts(totals);
+    }
+
+    /**
+     * Counts across the given students, or every student if {@code studentIds}
+     * is null.
+     */
+    public AttendanceCounts countsForClass(Collection<Long> studentIds, LocalDate from, LocalDate to) {
+        long[] totals = new long[STATUSES.length];
+        if (studentIds == null) {
+            for (Map<Integer, long[]> terms : students.values()) {
+                addCounts(terms, from, to, totals);
+            }
+        } else {
+            for (Long studentId : studentIds) {
+                Map<Integer, long[]> terms = students.get(studentId);
+                if (terms != null) {
+                    addCounts(terms, from, to, totals);
+                }
+            }
+        }
+        return toCounts(totals);
+    }
+
+    private void apply(Long studentId, LocalDate date, String status) {
+        if (!ready) {
+            synchronized (pending) {
+                if (!ready) {
+                    pending.add(new Object[] { studentId, date, status });
+                    return;
+                }
+            }
+        }
+        set(students, studentId, date, status);
+    }
+
+    private static void set(Map<Long, Map<Integer, long[]>> target, Long studentId, LocalDate date,
+            String status) {
+        int statusIndex = statusIndex(status);
+        int term = termOf(date);
+        long[] bits = target.computeIfAbsent(studentId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(term, t -> new long[STATUSES.length * WORDS_PER_STATUS]);
+        int day = date.getDayOfYear() - termStart(term).getDayOfYear();
+        int word = day >>> 6;
+        long mask = 1L << day;
+        synchronized (bits) {
+            for (int s = 0; s < STATUSES.length; s++) {
+                bits[s * WORDS_PER_STATUS + word] &= ~mask;
+            }
+            if (statusIndex >= 0) {
+                bits[statusIndex * WORDS_PER_STATUS + word] |= mask;
+            }
+        }
+    }
+
+    private static void addCounts(Map<Integer, long[]> terms, LocalDate from, LocalDate to, long[] totals) {
+        for (Map.Entry<Integer, long[]> entry : terms.entrySet()) {
+            int term = entry.getKey();
+            LocalDate termStart = termStart(term);
+            LocalDate termEnd = termEnd(term);
+            if ((from != null && termEnd.isBefore(from)) || (to != null && termStart.isAfter(to))) {
+                continue;
+            }
+            int firstDay = from == null || from.isBefore(termStart) ? 0
+                    : from.getDayOfYear() - termStart.getDayOfYear();
+            int lastDay = to == null || to.isAfter(termEnd) ? termEnd.getDayOfYear() - termStart.getDayOfYear()
+                    : to.getDayOfYear() - termStart.getDayOfYear();
+            long[] bits = entry.getValue();
+            synchronized (bits) {
+                for (int s = 0; s < STATUSES.length; s++) {
+                    totals[s] += countRange(bits, s * WORDS_PER_STATUS, firstDay, lastDay);
+                }
+            }
+        }
+    }
+
+    // Popcount of bits firstDay..lastDay (inclusive) in one status' words
+    private static long countRange(long[] bits, int offset, int firstDay, int lastDay) {
+        long count = 0;
+        for (int w = firstDay >>> 6; w <= lastDay >>> 6; w++) {
+            long word = bits[offset + w];
+            if (w == firstDay >>> 6) {
+                word &= -1L << firstDay;
+            }
+            if (w == lastDay >>> 6) {
+                word &= -1L >>> (63 - (lastDay & 63));
+            }
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static AttendanceCounts toCounts(long[] totals) {
+        return new AttendanceCounts(totals[0], totals[1], totals[2], totals[3]);
+    }
+
+    static int statusIndex(String status) {
+        if (status != null) {
+            for (int i = 0; i < STATUSES.length; i++) {
+                if (STATUSES[i].equalsIgnoreCase(status)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Terms run January-June and July-December
+    static int termOf(LocalDate date) {
+        return date.getYear() * 2 + (date.getMonthValue() > 6 ? 1 : 0);
+    }
+
+    static LocalDate termStart(int term) {
+        return LocalDate.of(term / 2, term % 2 == 0 ? 1 : 7, 1);
+    }
+
+    static LocalDate termEnd(int term) {
+        return term % 2 == 0 ? LocalDate.of(term / 2, 6, 30) : LocalDate.of(term / 2, 12, 31);
+    }
+}
@@ -1,13 +1,27 @@
 package com.example.studentmanagement.service;
 
 import com.example.studentmanagement.Attendance;
+import com.example.studentmanagement.payload.AttendanceHistory;
+import com.example.studentmanagement.payload.BulkUpsertResult;
 import com.example.studentmanagement.repository.AttendanceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 public class AttendanceService {
@@ -15,31 +29,249 @@ public class AttendanceService {
     @Autowired
     private AttendanceRepository attendanceRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AttendanceIndex attendanceIndex;
+
+    @Autowired
+    private ReportCardVersions reportCardVersions;
+
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+
+    @Autowired
+    private SchoolCalendar schoolCalendar;
+
+    @Transactional
     public Attendance markAttendance(Attendance attendance) {
         // Check if attendance already exists for student and date
         Optional<Attendance> existing = attendanceRepository.findByStudentIdAndDate(attendance.getStudent().getId(),
                 attendance.getDate());
+        Attendance saved;
+        String previousStatus = null;
         if (existing.isPresent()) {
             Attendance update = existing.get();
+            previousStatus = update.getStatus();
             update.setStatus(attendance.getStatus());
-            return attendanceRepository.save(update);
+            saved = attendanceRepository.save(update);
+        } else {
+            saved = attendanceRepository.save(attendance);
         }
-        return attendanceRepository.save(attendance);
+        applyChanges(List.of(new AttendanceChange(saved.getStudent().getId(), saved.getDate(), previousStatus,
+                saved.getStatus())));
+        return saved;
     }
 
-    public List<Attendance> markBulkAttendance(List<Attendance> attendances) {
+    /**
+     * Propagates attendance writes made in the current transaction to the
+     * daily summary (same transaction) and the in-memory index (after commit).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyChanges(List<AttendanceChange> changes) {
+        attendanceSummaryService.apply(changes);
+        for (AttendanceChange change : changes) {
+            attendanceIndex.record(change.studentId(), change.date(), change.status());
+            reportCardVersions.invalidate(change.studentId());
+        }
+    }
+
+    /**
+     * Inserts or updates attendance for many (student, date) pairs in one
+     * transaction: one query finds the existing rows, then inserts and
+     * updates each go out as a single JDBC batch. If the same pair appears
+     * more than once, the last entry wins.
+     */
+    @Transactional
+    public BulkUpsertResult markBulkAttendance(List<Attendance> attendances) {
+        Map<AttendanceKey, String> requested = new LinkedHashMap<>();
         for (Attendance attendance : attendances) {
-            Optional<Attendance> existing = attendanceRepository.findByStudentIdAndDate(attendance.getStudent().getId(),
-                    attendance.getDate());
-            if (existing.isPresent()) {
-                Attendance update = existing.get();
-                update.setStatus(attendance.getStatus());
-                attendanceRepository.save(update);
+            if (attendance.getStudent() == null || attendance.getStudent().getId() == null
+                    || attendance.getDate() == null || attendance.getStatus() == null) {
+                throw new IllegalArgumentException("Each entry needs student.id, date and status");
+            }
+            requested.put(new AttendanceKey(attendance.getStudent().getId(), attendance.getDate()),
+                    attendance.getStatus());
+        }
+        return upsert(requested);
+    }
+
+    /**
+     * Sets one student's status on each of the given dates, with the same
+     * single-query, batched write path as {@link #markBulkAttendance}.
+     */
+    @Transactional
+    public BulkUpsertResult markStudentAttendance(Long studentId, Collection<LocalDate> dates, String status) {
+        Map<AttendanceKey, String> requested = new LinkedHashMap<>();
+        for (LocalDate date : dates) {
+            requested.put(new AttendanceKey(studentId, date), status);
+        }
+        return upsert(requested);
+    }
+
+    private BulkUpsertResult upsert(Map<AttendanceKey, String> requested) {
+        if (requested.isEmpty()) {
+            return new BulkUpsertResult(0, 0, 0);
+        }
+
+        Set<Long> studentIds = new HashSet<>();
+        Set<LocalDate> dates = new HashSet<>();
+        requested.keySet().forEach(key -> {
+            studentIds.add(key.studentId());
+            dates.add(key.date());
+        });
+
+        // The IN/IN query can over-fetch across pairs; keep only requested keys
+        Map<AttendanceKey, Object[]> existing = new HashMap<>();
+        for (Object[] row : attendanceRepository.findKeysByStudentIdInAndDateIn(studentIds, dates)) {
+            AttendanceKey key = new AttendanceKey((Long) row[1], (LocalDate) row[2]);
+            if (requested.containsKey(key)) {
+                existing.put(key, row);
+            }
+        }
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<AttendanceChange> changes = new ArrayList<>();
+        int unchanged = 0;
+        for (Map.Entry<AttendanceKey, String> entry : requested.entrySet()) {
+            AttendanceKey key = entry.getKey();
+            String status = entry.getValue();
+            Object[] row = existing.get(key);
+            if (row == null) {
+                inserts.add(new Object[] { key.studentId(), Date.valueOf(key.date()), status });
+                changes.add(new AttendanceChange(key.studentId(), key.date(), null, status));
+            } else if (!status.equals(row[3])) {
+                updates.add(new Object[] { status, row[0] });
+                changes.add(new AttendanceChange(key.studentId(), key.date(), (String) row[3], status));
             } else {
-                attendanceRepository.save(attendance);
+                unchanged++;
             }
         }
-        return attendances;
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO attendance (student_id, date, status) VALUES (?, ?, ?)", inserts);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE attendance SET status = ? WHERE id = ?", updates);
+        }
+        applyChanges(changes);
+        return new BulkUpsertResult(inserts.size(), updates.size(), unchanged);
+    }
+
+    private record AttendanceKey(Long studentId, LocalDate date) {
+    }
+
+    /**
+     * Per-status counts for one student between the given dates (inclusive,
+     * null for open-ended). Answered from the in-memory index once it is built.
+     */
+    public AttendanceCounts getStudentCounts(Long studentId, LocalDate from, LocalDate to) {
+        if (attendanceIndex.isReady()) {
+            return attendanceIndex.countsForStudent(studentId, from, to);
+        }
+        return toCounts(attendanceRepository.countByStatusForStudent(studentId, orMin(from), orMax(to)));
+    }
+
+    // Same as getStudentCounts, across all students
+    public AttendanceCounts getClassCounts(LocalDate from, LocalDate to) {
+        if (attendanceIndex.isReady()) {
+            return attendanceIndex.countsForClass(null, from, to);
+        }
+        return toCounts(attendanceRepository.countByStatus(orMin(from), orMax(to)));
+    }
+
+    /**
+     * The student's attendance between the given dates (inclusive, null for
+     * open-ended) as run-length encoded status runs plus totals, folded from
+     * a single ordered query. Runs carry on over weekends and holidays with
+     * no record, so a term of unbroken attendance is one run.
+     */
+    public AttendanceHistory getHistory(Long studentId, LocalDate from, LocalDate to) {
+        AttendanceHistory history = new AttendanceHistory(studentId);
+        history.setWeekendDays(schoolCalendar.getWeekendDays());
+        List<Object[]> rows = attendanceRepository.findDateAndStatusForStudent(studentId, orMin(from), orMax(to));
+        Set<LocalDate> holidays = rows.isEmpty() ? Set.of()
+                : schoolCalendar.holidays((LocalDate) rows.get(0)[0], (LocalDate) rows.get(rows.size() - 1)[0]);
+        long[] totals = new long[AttendanceIndex.STATUSES.length];
+        LocalDate runStart = null;
+        LocalDate runEnd = null;
+        String runStatus = null;
+        int runDays = 0;
+        for (Object[] row : rows) {
+            LocalDate date = (LocalDate) row[0];
+            String status = (String) row[1];
+            int index = AttendanceIndex.statusIndex(status);
+            if (index >= 0) {
+                totals[index]++;
+            }
+            if (runStart != null && status.equals(runStatus) && continuesRun(runEnd, date, holidays)) {
+                runEnd = date;
+                runDays++;
+                continue;
+            }
+            if (runStart != null) {
+                history.getRuns().add(new AttendanceHistory.Run(runStart, runDays, runStatus));
+            }
+            runStart = date;
+            runEnd = date;
+            runStatus = status;
+            runDays = 1;
+        }
+        if (runStart != null) {
+            history.getRuns().add(new AttendanceHistory.Run(runStart, runDays, runStatus));
+        }
+        // Only holidays a run skips over are needed to expand it
+        Set<LocalDate> skipped = new TreeSet<>();
+        for (AttendanceHistory.Run run : history.getRuns()) {
+            LocalDate day = run.getStart();
+            for (int left = run.getDays() - 1; left > 0; left--) {
+                day = day.plusDays(1);
+                while (!schoolCalendar.isWorkingDay(day, holidays)) {
+                    if (holidays.contains(day)) {
+                        skipped.add(day);
+                    }
+                    day = day.plusDays(1);
+                }
+            }
+        }
+        history.setHolidays(new ArrayList<>(skipped));
+        history.setTotals(new AttendanceCounts(totals[0], totals[1], totals[2], totals[3]).toMap());
+        return history;
+    }
+
+    // A record extends a run when it is a working day and only non-working days lie since the run's last day
+    private boolean continuesRun(LocalDate runEnd, LocalDate date, Set<LocalDate> holidays) {
+        if (!schoolCalendar.isWorkingDay(date, holidays)) {
+            return false;
+        }
+        for (LocalDate day = runEnd.plusDays(1); day.isBefore(date); day = day.plusDays(1)) {
+            if (schoolCalendar.isWorkingDay(day, holidays)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Folds (status, count) rows into per-status totals
+    static AttendanceCounts toCounts(List<Object[]> rows) {
+        long[] totals = new long[AttendanceIndex.STATUSES.length];
+        for (Object[] row : rows) {
+            int index = AttendanceIndex.statusIndex((String) row[0]);
+            if (index >= 0) {
+                totals[index] += (Long) row[1];
+            }
+        }
+        return new AttendanceCounts(totals[0], totals[1], totals[2], totals[3]);
+    }
+
+    static LocalDate orMin(LocalDate date) {
+        return date != null ? date : LocalDate.of(1900, 1, 1);
+    }
+
+    static LocalDate orMax(LocalDate date) {
+        return date != null ? date : LocalDate.of(9999, 12, 31);
     }
 
     public List<Attendance> getAttendanceByStudent(Long studentId) {
@@ -0,0 +1,136 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.repository.DailyAttendanceSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains daily_attendance_totals, the per-day attendance counts by status
+ * that the analytics endpoints read. Counts are adjusted in the same
+ * transaction as the attendance write, so dashboard queries scale with the
+ * number of days rather than attendance rows.
+ *
+ * Buckets are keyed by date and status only. A student's course and semester
+ * change over time, so counts filed under them could not be reversed
+ * reliably, and every reader sums across cohorts anyway.
+ */
+@Service
+public class AttendanceSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceSummaryService.class);
+
+    // Adds to a bucket, creating it if needed, in one statement so concurrent first writes cannot collide
+    private static final String MYSQL_UPSERT = "INSERT INTO daily_attendance_totals (date, status, attendance_count)"
+            + " VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE attendance_count = attendance_count + VALUES(attendance_count)";
+    private static final String H2_UPSERT = "MERGE INTO daily_attendance_totals d"
+            + " USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(255)), CAST(? AS BIGINT))) v(summary_date, summary_status, delta)"
+            + " ON d.date = v.summary_date AND d.status = v.summary_status"
+            + " WHEN MATCHED THEN UPDATE SET attendance_count = d.attendance_count + v.delta"
+            + " WHEN NOT MATCHED THEN INSERT (date, status, attendance_count) VALUES (v.summary_date, v.summary_status, v.delta)";
+
+    @Autowired
+    private DailyAttendanceSummaryRepository summaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile String upsertSql;
+
+    /**
+     * Applies the given writes to the summary. Must run inside the transaction
+     * that made them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(List<AttendanceChange> changes) {
+        // Net change per bucket, so a batch touching one bucket many times writes it once
+        Map<List<Object>, Long> deltas = new LinkedHashMap<>();
+        for (AttendanceChange change : changes) {
+            if (change.previousStatus() != null) {
+                deltas.merge(List.of(change.date(), change.previousStatus()), -1L, Long::sum);
+            }
+            if (change.status() != null) {
+                deltas.merge(List.of(change.date(), change.status()), 1L, Long::sum);
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        deltas.forEach((key, delta) -> rows.add(new Object[] { Date.valueOf((LocalDate) key.get(0)), key.get(1), delta }));
+        jdbcTemplate.batchUpdate(upsertSql(), rows);
+    }
+
+    /** Recomputes the whole summary from the attendance table. */
+    @Transactional
+    public long rebuild() {
+        jdbcTemplate.update("DELETE FROM daily_attendance_totals");
+        jdbcTemplate.update("INSERT INTO daily_attendance_totals (date, status, attendance_count)"
+                + " SELECT a.date, a.status, COUNT(*) FROM attendance a GROUP BY a.date, a.status");
+        return summaryRepository.count();
+    }
+
+    // Fill the summary on first start after it was introduced
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (summaryRepository.count() == 0) {
+                Long attendanceRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance", Long.class);
+                if (attendanceRows != null && attendanceRows > 0) {
+                    logger.info("Attendance summary is empty, rebuilt {} rows", rebuild());
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Could not initialise the attendance summary: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Per-status counts across all students between the given dates
+     * (inclusive, null for open-ended).
+     */
+    public AttendanceCounts getCounts(LocalDate from, LocalDate to) {
+        return AttendanceService.toCounts(
+                summaryRepository.sumByStatus(AttendanceService.orMin(from), AttendanceService.orMax(to)));
+    }
+
+    /**
+     * Per-status counts for each day in the range that has any attendance,
+     * in date order.
+     */
+    public Map<LocalDate, AttendanceCounts> getDailyCounts(LocalDate from, LocalDate to) {
+        Map<LocalDate, List<Object[]>> byDate = new LinkedHashMap<>();
+        for (Object[] row : summaryRepository.sumByDateAndStatus(from, to)) {
+            byDate.computeIfAbsent((LocalDate) row[0], d -> new ArrayList<>())
+                    .add(new Object[] { row[1], row[2] });
+        }
+        Map<LocalDate, AttendanceCounts> daily = new LinkedHashMap<>();
+        byDate.forEach((date, rows) -> daily.put(date, AttendanceService.toCounts(rows)));
+        return daily;
+    }
+
+    private String upsertSql() {
+        if (upsertSql == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            upsertSql = "H2".equalsIgnoreCase(product) ? H2_UPSERT : MYSQL_UPSERT;
+        }
+        return upsertSql;
+    }
+}
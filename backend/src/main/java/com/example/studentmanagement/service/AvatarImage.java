@@ -0,0 +1,8 @@
+package com.example.studentmanagement.service;
+
+/**
+ * An avatar as served: the image bytes, their content type and the hash
+ * used as the ETag.
+ */
+public record AvatarImage(String contentType, byte[] data, String contentHash) {
+}
@@ -0,0 +1,437 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.UserAvatar;
+import com.example.studentmanagement.UserAvatarVariant;
+import com.example.studentmanagement.repository.UserAvatarRepository;
+import com.example.studentmanagement.repository.UserAvatarVariantRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stores profile pictures and keeps the most recently requested ones in
+ * memory. The cache is an LRU bounded by the total size of the images it
+ * holds rather than by entry count, since avatars range from a few KB to
+ * several MB.
+ *
+ * Each upload is also scaled down to the sizes in {@code app.avatar.sizes}
+ * on a single background thread. Until those exist, or when no variant is
+ * large enough, requests are served the original.
+ */
+@Service
+public class AvatarService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvatarService.class);
+
+    // Cache key size for the original upload
+    private static final int ORIGINAL = 0;
+
+    @Autowired
+    private UserAvatarRepository userAvatarRepository;
+
+    @Autowired
+    private UserAvatarVariantRepository userAvatarVariantRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.avatar.cache-max-bytes:16777216}")
+    private long cacheMaxBytes;
+
+    @Value("${app.avatar.sizes:32,64,256}")
+    private List<Integer> sizes;
+
+    // Larger images are never decoded: a tiny file can declare enormous dimensions
+    @Value("${app.avatar.max-pixels:40000000}")
+    private long maxPixels;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<AvatarKey, AvatarImage> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // userId -> variant sizes that exist, ascending
+    private final Map<Long, List<Integer>> variantSizes = new ConcurrentHashMap<>();
+    private final Set<Long> generating = ConcurrentHashMap.newKeySet();
+    // Orders uploads against thumbnail writes so variants always match the stored original
+    private final Object variantLock = new Object();
+    private final ThreadPoolExecutor thumbnailExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(100), r -> {
+                Thread t = new Thread(r, "avatar-thumbnails");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    private final LongAdder variantsGenerated = new LongAdder();
+
+    private record AvatarKey(Long userId, int size) {
+    }
+
+    public AvatarImage save(Long userId, String contentType, byte[] data) {
+        UserAvatar avatar = new UserAvatar();
+        avatar.setUserId(userId);
+        avatar.setContentType(contentType);
+        avatar.setData(data);
+        avatar.setContentHash(hash(data));
+        avatar.setUpdatedAt(LocalDateTime.now());
+        synchronized (variantLock) {
+            userAvatarRepository.save(avatar);
+            // Old thumbnails must not outlive the upload they were made from
+            userAvatarVariantRepository.deleteByUserId(userId);
+            variantSizes.put(userId, List.of());
+        }
+        evict(userId);
+
+        AvatarImage image = new AvatarImage(contentType, data, avatar.getContentHash());
+        put(new AvatarKey(userId, ORIGINAL), image, true);
+        generateVariants(userId);
+        return image;
+    }
+
+    /**
+     * Removes a deleted user's avatar, thumbnails and cache entries. Inside a
+     * transaction this happens once it commits, so a delete that rolls back
+     * keeps the avatar.
+     */
+    public void delete(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(userId);
+                }
+            });
+        } else {
+            remove(userId);
+        }
+    }
+
+    private void remove(Long userId) {
+        // The committed transaction's resources are still bound here, so the delete needs its own
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        synchronized (variantLock) {
+            transaction.executeWithoutResult(status -> {
+                userAvatarVariantRepository.deleteByUserId(userId);
+                userAvatarRepository.deleteByUserId(userId);
+            });
+            variantSizes.remove(userId);
+        }
+        evict(userId);
+    }
+
+    /**
+     * The avatar to serve for a display of {@code size} pixels: the smallest
+     * variant at least that large, else the original. A null size asks for
+     * the original.
+     */
+    public Optional<AvatarImage> find(@org.springframework.lang.NonNull Long userId, Integer size) {
+        AvatarKey key = new AvatarKey(userId, pick(userId, size));
+        synchronized (cache) {
+            AvatarImage cached = cache.get(key);
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+        }
+        misses.increment();
+        Optional<AvatarImage> image = key.size() == ORIGINAL ? loadOriginal(userId) : loadVariant(key);
+        // Don't replace an entry a concurrent upload has just put
+        image.ifPresent(loaded -> put(key, loaded, false));
+        return image;
+    }
+
+    /**
+     * The content hash of what {@link #find} would return, without loading
+     * the image when it isn't cached. Empty if there is no avatar or its hash
+     * isn't stored yet.
+     */
+    public Optional<String> findHash(Long userId, Integer size) {
+        AvatarKey key = new AvatarKey(userId, pick(userId, size));
+        synchronized (cache) {
+            AvatarImage cached = cache.get(key);
+            if (cached != null) {
+                return Optional.of(cached.contentHash());
+            }
+        }
+        return key.size() == ORIGINAL ? userAvatarRepository.findContentHashByUserId(userId)
+                : userAvatarVariantRepository.findContentHashByUserIdAndSizePx(userId, key.size());
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        synchronized (cache) {
+            metrics.put("entries", cache.size());
+            metrics.put("bytes", cachedBytes);
+        }
+        metrics.put("maxBytes", cacheMaxBytes);
+        metrics.put("hits", hits.sum());
+        metrics.put("misses", misses.sum());
+        metrics.put("evictions", evictions.sum());
+        metrics.put("variantsGenerated", variantsGenerated.sum());
+        metrics.put("thumbnailQueueDepth", thumbnailExecutor.getQueue().size());
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        thumbnailExecutor.shutdownNow();
+    }
+
+    private int pick(Long userId, Integer size) {
+        if (size == null || size <= 0) {
+            return ORIGINAL;
+        }
+        List<Integer> available = variantSizes.get(userId);
+        if (available == null) {
+            available = userAvatarVariantRepository.findSizesByUserId(userId);
+            variantSizes.put(userId, available);
+            if (available.isEmpty()) {
+                // Avatars uploaded before variants existed get them on first request
+                generateVariants(userId);
+            }
+        }
+        for (int variant : available) {
+            if (variant >= size) {
+                return variant;
+            }
+        }
+        return ORIGINAL;
+    }
+
+    private Optional<AvatarImage> loadOriginal(@org.springframework.lang.NonNull Long userId) {
+        Optional<UserAvatar> stored = userAvatarRepository.findById(userId);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        UserAvatar avatar = stored.get();
+        if (avatar.getContentHash() == null) {
+            // Rows written before hashes were stored
+            avatar.setContentHash(hash(avatar.getData()));
+            userAvatarRepository.save(avatar);
+        }
+        return Optional.of(new AvatarImage(avatar.getContentType(), avatar.getData(), avatar.getContentHash()));
+    }
+
+    private Optional<AvatarImage> loadVariant(AvatarKey key) {
+        return userAvatarVariantRepository.findByUserIdAndSizePx(key.userId(), key.size())
+                .map(variant -> new AvatarImage(variant.getContentType(), variant.getData(),
+                        variant.getContentHash()));
+    }
+
+    private void generateVariants(Long userId) {
+        if (!generating.add(userId)) {
+            return;
+        }
+        try {
+            thumbnailExecutor.execute(() -> {
+                try {
+                    createVariants(userId);
+                } catch (Exception e) {
+                    logger.warn("Could not create avatar thumbnails for user {}: {}", userId, e.getMessage());
+                } finally {
+                    generating.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            generating.remove(userId);
+            logger.debug("Thumbnail queue full, user {} keeps the original for now", userId);
+        }
+    }
+
+    private void createVariants(@org.springframework.lang.NonNull Long userId) throws IOException {
+        Optional<UserAvatar> stored = userAvatarRepository.findById(userId);
+        if (stored.isEmpty()) {
+            return;
+        }
+        UserAvatar avatar = stored.get();
+        BufferedImage source = decode(userId, avatar.getData());
+        if (source == null) {
+            return;
+        }
+        // JPEGs stay JPEG; PNG and GIF become PNG so transparency survives
+        boolean jpeg = "image/jpeg".equals(avatar.getContentType());
+        String hash = avatar.getContentHash() != null ? avatar.getContentHash() : hash(avatar.getData());
+        int longest = Math.max(source.getWidth(), source.getHeight());
+
+        List<UserAvatarVariant> variants = new ArrayList<>();
+        for (int size : sizes.stream().sorted().toList()) {
+            // No point storing something as large as the original
+            if (size >= longest) {
+                break;
+            }
+            byte[] data = encode(scale(source, size, jpeg), jpeg ? "jpg" : "png");
+            UserAvatarVariant variant = new UserAvatarVariant();
+            variant.setUserId(userId);
+            variant.setSizePx(size);
+            variant.setContentType(jpeg ? "image/jpeg" : "image/png");
+            variant.setData(data);
+            variant.setContentHash(hash(data));
+            variants.add(variant);
+        }
+
+        synchronized (variantLock) {
+            // A newer upload replaces the original (and its hash) and queues its own run
+            if (!userAvatarRepository.findContentHashByUserId(userId).map(hash::equals).orElse(false)) {
+                return;
+            }
+            userAvatarVariantRepository.deleteByUserId(userId);
+            userAvatarVariantRepository.saveAll(variants);
+            variantSizes.put(userId, variants.stream().map(UserAvatarVariant::getSizePx).toList());
+        }
+        variantsGenerated.add(variants.size());
+        evict(userId);
+    }
+
+    /**
+     * Decodes an upload after checking the dimensions in its header, so an
+     * image that would need gigabytes of memory is refused before any pixels
+     * are allocated. Large images are subsampled while decoding to about four
+     * times the biggest thumbnail, which is all scaling needs. Returns null
+     * for anything that cannot or should not be decoded.
+     */
+    private BufferedImage decode(Long userId, byte[] data) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                logger.debug("Avatar of user {} is not a readable image, no thumbnails made", userId);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long width = reader.getWidth(0);
+                long height = reader.getHeight(0);
+                if (width <= 0 || height <= 0 || width * height > maxPixels) {
+                    logger.warn("Avatar of user {} is {}x{} pixels, over the limit of {}; no thumbnails made",
+                            userId, width, height, maxPixels);
+                    return null;
+                }
+                int largest = sizes.stream().max(Integer::compare).orElse(256);
+                int step = (int) Math.max(1, Math.max(width, height) / (4L * largest));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves the image until within 2x of the target, then draws the final
+    // size; a single bilinear pass from a large photo aliases badly
+    private static BufferedImage scale(BufferedImage source, int size, boolean opaque) {
+        double ratio = (double) size / Math.max(source.getWidth(), source.getHeight());
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2, opaque);
+        }
+        return draw(current, width, height, opaque);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, boolean opaque) {
+        BufferedImage target = new BufferedImage(width, height,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, format, out)) {
+            throw new IOException("No ImageIO writer for " + format);
+        }
+        return out.toByteArray();
+    }
+
+    private void evict(Long userId) {
+        synchronized (cache) {
+            Iterator<Map.Entry<AvatarKey, AvatarImage>> entries = cache.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<AvatarKey, AvatarImage> entry = entries.next();
+                if (entry.getKey().userId().equals(userId)) {
+                    cachedBytes -= entry.getValue().data().length;
+                    entries.remove();
+                }
+            }
+        }
+    }
+
+    private void put(AvatarKey key, AvatarImage image, boolean replace) {
+        synchronized (cache) {
+            if (!replace && cache.containsKey(key)) {
+                return;
+            }
+            AvatarImage previous = cache.remove(key);
+            if (previous != null) {
+                cachedBytes -= previous.data().length;
+            }
+            // An image larger than the whole cache would just evict everything else
+            if (image.data().length > cacheMaxBytes) {
+                return;
+            }
+            cache.put(key, image);
+            cachedBytes += image.data().length;
+            Iterator<AvatarImage> eldest = cache.values().iterator();
+            while (cachedBytes > cacheMaxBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().data().length;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    static String hash(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
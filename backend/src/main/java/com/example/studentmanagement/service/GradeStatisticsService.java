@@ -0,0 +1,71 @@
+package com.example.studentmanagement.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Grade distributions per subject and exam type, computed in one pass over
+ * the marks table. Only four columns are read per row and each row is
+ * folded into its group's {@link GradeStats} as it arrives, so memory is
+ * per group rather than per mark.
+ */
+@Service
+public class GradeStatisticsService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Statistics for every subject, with one entry per exam type plus a
+     * subject total merged from them. Null filters match everything.
+     */
+    public List<Map<String, Object>> getDistributions(String subject, String examType) {
+        StringBuilder sql = new StringBuilder("SELECT subject, exam_type, marks_obtained, max_marks FROM marks");
+        List<Object> args = new ArrayList<>();
+        if (subject != null) {
+            sql.append(" WHERE subject = ?");
+            args.add(subject);
+        }
+        if (examType != null) {
+            sql.append(args.isEmpty() ? " WHERE" : " AND").append(" exam_type = ?");
+            args.add(examType);
+        }
+
+        // subject -> exam type -> stats, sorted for a stable response
+        Map<String, Map<String, GradeStats>> groups = new TreeMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            int obtained = rs.getInt(3);
+            // Checked straight away: wasNull reflects the last column read
+            Integer marks = rs.wasNull() ? null : obtained;
+            groups.computeIfAbsent(rs.getString(1), s -> new TreeMap<>())
+                    .computeIfAbsent(rs.getString(2), e -> new GradeStats())
+                    .add(marks, rs.getInt(4));
+        }, args.toArray());
+
+        List<Map<String, Object>> subjects = new ArrayList<>(groups.size());
+        groups.forEach((subjectName, byExamType) -> {
+            GradeStats total = new GradeStats();
+            List<Map<String, Object>> examTypes = new ArrayList<>(byExamType.size());
+            byExamType.forEach((examTypeName, stats) -> {
+                total.merge(stats);
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("examType", examTypeName);
+                entry.putAll(stats.toMap());
+                examTypes.add(entry);
+            });
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("subject", subjectName);
+            entry.putAll(total.toMap());
+            entry.put("examTypes", examTypes);
+            subjects.add(entry);
+        });
+        return subjects;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.studentmanagement.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running statistics over mark percentages, updated one mark at a time.
+ * Mean and variance use Welford's method, so no values are kept. The
+ * median comes from a sketch of 1001 counters, one per 0.1%, which is
+ * exact to that resolution and small enough to keep one per group. The
+ * histogram is counted separately from the exact marks, since rounding to
+ * 0.1% would push e.g. 19.96% into the 20-30 band. Two instances can be
+ * merged, e.g. to combine exam types into a subject total.
+ */
+public class GradeStats {
+
+    static final int HISTOGRAM_BUCKETS = 10;
+    private static final int SKETCH_BINS = 1001;
+
+    private long count;
+    private long absent;
+    private double mean;
+    private double m2;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private final long[] sketch = new long[SKETCH_BINS];
+    private final long[] bands = new long[HISTOGRAM_BUCKETS];
+
+    /** Adds one mark; a null {@code obtained} counts as absent. */
+    public void add(Integer obtained, int maxMarks) {
+        if (obtained == null) {
+            absent++;
+            return;
+        }
+        if (maxMarks <= 0) {
+            return;
+        }
+        double percentage = Math.max(0, Math.min(100, obtained * 100.0 / maxMarks));
+        count++;
+        double delta = percentage - mean;
+        mean += delta / count;
+        m2 += delta * (percentage - mean);
+        min = count == 1 ? percentage : Math.min(min, percentage);
+        max = count == 1 ? percentage : Math.max(max, percentage);
+        sketch[(int) Math.round(percentage * 10)]++;
+        // In integers, so a mark on a band boundary can't land below it
+        long band = Math.floorDiv((long) obtained * HISTOGRAM_BUCKETS, maxMarks);
+        bands[(int) Math.max(0, Math.min(HISTOGRAM_BUCKETS - 1, band))]++;
+    }
+
+    /** Folds {@code other} into this one (Chan et al.'s parallel variance update). */
+    public void merge(GradeStats other) {
+        if (other.count > 0) {
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            m2 += other.m2 + delta * delta * count * other.count / total;
+            mean += delta * other.count / total;
+            min = count == 0 ? other.min : Math.min(min, other.min);
+            max = count == 0 ? other.max : Math.max(max, other.max);
+            count = total;
+            for (int i = 0; i < SKETCH_BINS; i++) {
+                sketch[i] += other.sketch[i];
+            }
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                bands[i] += other.bands[i];
+            }
+        }
+        absent += other.absent;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getAbsent() {
+        return absent;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    // Population standard deviation
+    public double getStdDev() {
+        return count > 0 ? Math.sqrt(m2 / count) : 0;
+    }
+
+    public double getMin() {
+        return count > 0 ? min : 0;
+    }
+
+    public double getMax() {
+        return count > 0 ? max : 0;
+    }
+
+    /** The {@code q} quantile (0..1), to the nearest 0.1%. */
+    public double quantile(double q) {
+        if (count == 0) {
+            return 0;
+        }
+        // Same convention as the usual median: average the two middle values for even counts
+        double lower = valueAt((long) Math.floor(q * (count - 1)));
+        double upper = valueAt((long) Math.ceil(q * (count - 1)));
+        return (lower + upper) / 2;
+    }
+
+    /** Counts per 10% band; a mark of exactly 100% falls in the last band. */
+    public long[] histogram() {
+        return bands.clone();
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", count);
+        map.put("absent", absent);
+        map.put("mean", round(getMean()));
+        map.put("median", round(quantile(0.5)));
+        map.put("stdDev", round(getStdDev()));
+        map.put("min", round(getMin()));
+        map.put("max", round(getMax()));
+        long[] buckets = histogram();
+        List<Map<String, Object>> histogram = new ArrayList<>(buckets.length);
+        int width = 100 / HISTOGRAM_BUCKETS;
+        for (int i = 0; i < buckets.length; i++) {
+            histogram.add(Map.of("range", (i * width) + "-" + ((i + 1) * width), "count", buckets[i]));
+        }
+        map.put("histogram", histogram);
+        return map;
+    }
+
+    // Percentage of the rank-th smallest value (0-based)
+    private double valueAt(long rank) {
+        long seen = 0;
+        for (int i = 0; i < SKETCH_BINS; i++) {
+            seen += sketch[i];
+            if (seen > rank) {
+                return i / 10.0;
+            }
+        }
+        return max;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+}
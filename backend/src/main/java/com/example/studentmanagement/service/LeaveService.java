@@ -1,12 +1,10 @@
 package com.example.studentmanagement.service;
 
-import com.example.studentmanagement.Attendance;
 import com.example.studentmanagement.Leave;
-import com.example.studentmanagement.Student;
-import com.example.studentmanagement.repository.AttendanceRepository;
 import com.example.studentmanagement.repository.LeaveRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -18,11 +16,19 @@ public class LeaveService {
     private LeaveRepository leaveRepository;
 
     @Autowired
-    private AttendanceRepository attendanceRepository;
+    private SchoolCalendar schoolCalendar;
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private ReportCardVersions reportCardVersions;
 
     public Leave applyLeave(Leave leave) {
         leave.setStatus("PENDING");
-        return leaveRepository.save(leave);
+        Leave saved = leaveRepository.save(leave);
+        invalidateReportCard(saved);
+        return saved;
     }
 
     public List<Leave> getLeavesByStudent(@org.springframework.lang.NonNull Long studentId) {
@@ -37,27 +43,20 @@ public class LeaveService {
         return leaveRepository.findAllByOrderByAppliedAtDesc();
     }
 
+    @Transactional
     public Leave approveLeave(@org.springframework.lang.NonNull Long leaveId, String remarks) {
         Leave leave = leaveRepository.findById(leaveId)
                 .orElseThrow(() -> new RuntimeException("Leave not found"));
         leave.setStatus("APPROVED");
         leave.setRemarks(remarks);
 
-        // Auto-update attendance as "Leave" for the date range
-        Student student = leave.getStudent();
-        LocalDate current = leave.getStartDate();
-        while (!current.isAfter(leave.getEndDate())) {
-            Attendance attendance = attendanceRepository
-                    .findByStudentIdAndDate(student.getId(), current)
-                    .orElse(new Attendance());
-            attendance.setStudent(student);
-            attendance.setDate(current);
-            attendance.setStatus("Leave");
-            attendanceRepository.save(attendance);
-            current = current.plusDays(1);
-        }
+        // Mark every working day of the leave as "Leave" in one batched write
+        List<LocalDate> days = schoolCalendar.workingDays(leave.getStartDate(), leave.getEndDate());
+        attendanceService.markStudentAttendance(leave.getStudent().getId(), days, "Leave");
 
-        return leaveRepository.save(leave);
+        Leave saved = leaveRepository.save(leave);
+        invalidateReportCard(saved);
+        return saved;
     }
 
     public Leave rejectLeave(@org.springframework.lang.NonNull Long leaveId, String remarks) {
@@ -65,6 +64,14 @@ public class LeaveService {
                 .orElseThrow(() -> new RuntimeException("Leave not found"));
         leave.setStatus("REJECTED");
         leave.setRemarks(remarks);
-        return leaveRepository.save(leave);
+        Leave saved = leaveRepository.save(leave);
+        invalidateReportCard(saved);
+        return saved;
+    }
+
+    private void invalidateReportCard(Leave leave) {
+        if (leave.getStudent() != null) {
+            reportCardVersions.invalidate(leave.getStudent().getId());
+        }
     }
 }
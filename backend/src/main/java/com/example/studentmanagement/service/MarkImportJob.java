@@ -0,0 +1,141 @@
+package com.example.studentmanagement.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress of one CSV mark import. Written by the import thread only and
+ * read by status requests, so every field is volatile.
+ */
+public class MarkImportJob {
+
+    // Only the first rejected rows are kept, so a bad file can't fill memory
+    static final int MAX_ERRORS = 100;
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final String fileName;
+    private final Long startedBy;
+    private final long totalBytes;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile long bytesRead;
+    private volatile long rowsRead;
+    private volatile long inserted;
+    private volatile long updated;
+    private volatile long unchanged;
+    private volatile long rejected;
+    private volatile String message;
+    private volatile LocalDateTime finishedAt;
+    private final List<Map<String, Object>> errors = Collections.synchronizedList(new ArrayList<>());
+
+    MarkImportJob(String id, String fileName, Long startedBy, long totalBytes) {
+        this.id = id;
+        this.fileName = fileName;
+        this.startedBy = startedBy;
+        this.totalBytes = totalBytes;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Long getStartedBy() {
+        return startedBy;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    // Share of the file read so far
+    public double getProgress() {
+        if (status == Status.COMPLETED) {
+            return 100.0;
+        }
+        return totalBytes > 0 ? Math.round(Math.min(bytesRead, totalBytes) * 1000.0 / totalBytes) / 10.0 : 0;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public List<Map<String, Object>> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    void start() {
+        status = Status.RUNNING;
+    }
+
+    void bytesRead(long bytes) {
+        bytesRead = bytes;
+    }
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void reject(long line, String reason) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(Map.of("line", line, "message", reason));
+        }
+    }
+
+    void written(long inserted, long updated, long unchanged) {
+        this.inserted += inserted;
+        this.updated += updated;
+        this.unchanged += unchanged;
+    }
+
+    void finish(Status status, String message) {
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+        this.status = status;
+    }
+}
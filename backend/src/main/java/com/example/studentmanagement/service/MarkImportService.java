@@ -0,0 +1,293 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.payload.BulkUpsertResult;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports marks from CSV files in the format the marks export writes
+ * (Student ID, Student Name, Subject, Exam Type, Obtained, Max Marks,
+ * Percentage; "AB" for absent). Files are read line by line on a
+ * background thread and written in chunks of {@code app.marks.import-chunk-size}
+ * rows, each in its own transaction, so a large file never sits in memory
+ * and a failure part way keeps the chunks already written.
+ */
+@Service
+public class MarkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarkImportService.class);
+
+    @Autowired
+    private MarkService markService;
+
+    @Value("${app.marks.import-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.marks.import-retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, MarkImportJob> jobs = new ConcurrentHashMap<>();
+    // Imports run one at a time; a few more may wait
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(10), r -> {
+                Thread t = new Thread(r, "marks-import");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+    /**
+     * Queues the file for import and returns its job. The upload is moved to
+     * a temporary file first, since the request's copy is gone once it ends.
+     *
+     * @throws RejectedExecutionException if too many imports are waiting
+     */
+    public MarkImportJob start(MultipartFile file, Long userId) throws IOException {
+        Path temp = Files.createTempFile("marks-import-", ".csv");
+        try {
+            file.transferTo(temp);
+            MarkImportJob job = new MarkImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), userId,
+                    Files.size(temp));
+            jobs.put(job.getId(), job);
+            try {
+                executor.execute(() -> run(job, temp));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.getId());
+                throw e;
+            }
+            return job;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    public Optional<MarkImportJob> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    // Finished jobs are kept for a while so clients can read the outcome
+    @Scheduled(fixedDelay = 600000)
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(MarkImportJob job, Path file) {
+        job.start();
+        long start = System.currentTimeMillis();
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file));
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                job.finish(MarkImportJob.Status.FAILED, "The file is empty");
+                return;
+            }
+            Columns columns = Columns.of(parseLine(header.replace("\uFEFF", "")));
+            if (columns == null) {
+                job.finish(MarkImportJob.Status.FAILED,
+                        "Header must include Student ID, Subject, Exam Type, Obtained and Max Marks");
+                return;
+            }
+
+            List<MarkService.MarkEntry> chunk = new ArrayList<>(chunkSize);
+            List<Long> chunkLines = new ArrayList<>(chunkSize);
+            long lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                job.rowRead();
+                try {
+                    chunk.add(columns.entry(parseLine(line)));
+                    chunkLines.add(lineNumber);
+                } catch (IllegalArgumentException e) {
+                    job.reject(lineNumber, e.getMessage());
+                }
+                if (chunk.size() >= chunkSize) {
+                    write(job, chunk, chunkLines);
+                    job.bytesRead(in.count);
+                }
+            }
+            write(job, chunk, chunkLines);
+            job.bytesRead(in.count);
+            job.finish(MarkImportJob.Status.COMPLETED, null);
+            logger.info("Mark import {} finished: {} rows in {} ms", job.getId(), job.getRowsRead(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.warn("Mark import {} failed: {}", job.getId(), e.getMessage());
+            job.finish(MarkImportJob.Status.FAILED, "Import stopped: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete import file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private void write(MarkImportJob job, List<MarkService.MarkEntry> chunk, List<Long> lines) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<Long> studentIds = new HashSet<>();
+        chunk.forEach(entry -> studentIds.add(entry.studentId()));
+        Set<Long> known = markService.findExistingStudents(studentIds);
+        List<MarkService.MarkEntry> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (known.contains(chunk.get(i).studentId())) {
+                valid.add(chunk.get(i));
+            } else {
+                job.reject(lines.get(i), "No such student: " + chunk.get(i).studentId());
+            }
+        }
+        BulkUpsertResult result;
+        try {
+            result = markService.upsertMarks(valid);
+        } catch (DataIntegrityViolationException e) {
+            // Another write inserted one of the same marks first; a second pass updates it
+            result = markService.upsertMarks(valid);
+        }
+        job.written(result.getInserted(), result.getUpdated(), result.getUnchanged());
+        chunk.clear();
+        lines.clear();
+    }
+
+    // Positions of the columns the import uses, found by header name
+    private record Columns(int studentId, int subject, int examType, int obtained, int maxMarks) {
+
+        static Columns of(List<String> header) {
+            List<String> names = header.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+            Columns columns = new Columns(names.indexOf("student id"), names.indexOf("subject"),
+                    names.indexOf("exam type"), names.indexOf("obtained"), names.indexOf("max marks"));
+            return columns.studentId < 0 || columns.subject < 0 || columns.examType < 0 || columns.obtained < 0
+                    || columns.maxMarks < 0 ? null : columns;
+        }
+
+        MarkService.MarkEntry entry(List<String> fields) {
+            int needed = Math.max(Math.max(Math.max(studentId, subject), Math.max(examType, obtained)), maxMarks);
+            if (fields.size() <= needed) {
+                throw new IllegalArgumentException("Expected at least " + (needed + 1) + " columns");
+            }
+            long student = parseNumber(fields.get(studentId), "Student ID");
+            String subjectName = fields.get(subject).trim();
+            String exam = fields.get(examType).trim();
+            if (subjectName.isEmpty() || exam.isEmpty()) {
+                throw new IllegalArgumentException("Subject and Exam Type are required");
+            }
+            long max = parseNumber(fields.get(maxMarks), "Max Marks");
+            if (max <= 0 || max > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Max Marks must be positive");
+            }
+            String obtainedText = fields.get(obtained).trim();
+            Integer marks = null;
+            if (!obtainedText.isEmpty() && !obtainedText.equalsIgnoreCase("AB")) {
+                long value = parseNumber(obtainedText, "Obtained");
+                if (value < 0 || value > max) {
+                    throw new IllegalArgumentException("Obtained must be between 0 and " + max);
+                }
+                marks = (int) value;
+            }
+            return new MarkService.MarkEntry(student, subjectName, exam, marks, (int) max);
+        }
+
+        private static long parseNumber(String text, String column) {
+            try {
+                return Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " is not a whole number: " + text.trim());
+            }
+        }
+    }
+
+    // Splits one CSV line; quoted fields may contain commas and "" for a quote
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
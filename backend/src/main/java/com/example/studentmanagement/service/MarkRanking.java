@@ -0,0 +1,244 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.Mark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory student rankings by overall percentage (marks obtained over
+ * max marks, summed across the student's marks). A ranking is kept for
+ * every subject and exam type combination, each subject, each exam type
+ * and overall, so filtered queries never touch the marks table.
+ *
+ * Like {@link AttendanceIndex}, it is built once the application is ready
+ * and then kept in step with writes via {@link #record}. Until
+ * {@link #isReady()} is true, callers should fall back to the database.
+ */
+@Component
+public class MarkRanking {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarkRanking.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // A null subject or exam type means "any"
+    private record Scope(String subject, String examType) {
+    }
+
+    /** What one mark contributes to its student's totals. */
+    public record MarkScore(Long studentId, String subject, String examType, long obtained, long max) {
+
+        public static MarkScore of(Mark mark) {
+            if (mark == null || mark.getStudent() == null || mark.getStudent().getId() == null) {
+                return null;
+            }
+            return new MarkScore(mark.getStudent().getId(), mark.getSubject(), mark.getExamType(),
+                    mark.getMarksObtained() != null ? mark.getMarksObtained() : 0, mark.getMaxMarks());
+        }
+    }
+
+    /** A student's position in one ranking; rank 1 is the highest percentage and ties share a rank. */
+    public record StudentRank(Long studentId, double percentage, int rank, int of) {
+
+        // Share of ranked students this student scores at least as well as
+        public double percentile() {
+            return of > 0 ? (of - rank + 1) * 100.0 / of : 0;
+        }
+    }
+
+    private static final class Board {
+        // studentId -> {obtained, max, marks}
+        final Map<Long, long[]> totals = new HashMap<>();
+        final OrderStatisticTree tree = new OrderStatisticTree();
+    }
+
+    private Map<Scope, Board> boards = new HashMap<>();
+    private boolean ready;
+    private boolean building;
+    // Set by writes that arrive while the ranking is being built
+    private boolean changedDuringBuild;
+    // The last build gave up with writes still arriving; the next read rebuilds
+    private boolean dirty;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        try {
+            long start = System.currentTimeMillis();
+            // Totals are additive, so a write that lands mid-scan can't simply be replayed
+            // (the scan may already include it); scan again instead
+            for (int attempt = 1;; attempt++) {
+                synchronized (this) {
+                    changedDuringBuild = false;
+                    building = true;
+                }
+                Map<Scope, Board> built = new HashMap<>();
+                int[] rows = { 0 };
+                jdbcTemplate.query("SELECT student_id, subject, exam_type, marks_obtained, max_marks FROM marks",
+                        rs -> {
+                            add(built, new MarkScore(rs.getLong(1), rs.getString(2), rs.getString(3),
+                                    rs.getLong(4), rs.getLong(5)), 1);
+                            rows[0]++;
+                        });
+                synchronized (this) {
+                    if (!changedDuringBuild || attempt == 3) {
+                        boards = built;
+                        ready = true;
+                        building = false;
+                        dirty = changedDuringBuild;
+                        if (dirty) {
+                            logger.warn("Marks kept changing while the ranking was built ({} attempts); it may be"
+                                    + " stale and will be rebuilt on the next read", attempt);
+                        } else {
+                            logger.info("Mark ranking built from {} rows in {} ms", rows[0],
+                                    System.currentTimeMillis() - start);
+                        }
+                        return;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            synchronized (this) {
+                building = false;
+            }
+            logger.warn("Could not build mark ranking, rankings will be computed from the database: {}",
+                    e.getMessage());
+        }
+    }
+
+    // Called before each read; the reader that finds the ranking dirty rebuilds it, others carry on
+    private void rebuildIfDirty() {
+        synchronized (this) {
+            if (!dirty || building) {
+                return;
+            }
+            dirty = false;
+        }
+        build();
+    }
+
+    public synchronized boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Records a mark being replaced: {@code previous} is what the row held
+     * before (null for a new mark), {@code current} what it holds now (null
+     * for a deletion). Inside a transaction this applies once it commits.
+     */
+    public void record(MarkScore previous, MarkScore current) {
+        if (previous == null && current == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(previous, current);
+                }
+            });
+        } else {
+            apply(previous, current);
+        }
+    }
+
+    /** The {@code k} highest ranked students, best first. Null filters match everything. */
+    public List<StudentRank> top(String subject, String examType, int k) {
+        rebuildIfDirty();
+        synchronized (this) {
+            Board board = boards.get(new Scope(subject, examType));
+            return board == null ? List.of() : ranks(board, board.tree.highest(k));
+        }
+    }
+
+    /** The {@code k} lowest ranked students, lowest first. */
+    public List<StudentRank> bottom(String subject, String examType, int k) {
+        rebuildIfDirty();
+        synchronized (this) {
+            Board board = boards.get(new Scope(subject, examType));
+            return board == null ? List.of() : ranks(board, board.tree.lowest(k));
+        }
+    }
+
+    /** Where a student stands, empty if they have no marks in scope. */
+    public Optional<StudentRank> rankOf(Long studentId, String subject, String examType) {
+        rebuildIfDirty();
+        synchronized (this) {
+            Board board = boards.get(new Scope(subject, examType));
+            if (board == null || !board.totals.containsKey(studentId)) {
+                return Optional.empty();
+            }
+            List<StudentRank> ranks = ranks(board, List.of(studentId));
+            return ranks.isEmpty() ? Optional.empty() : Optional.of(ranks.get(0));
+        }
+    }
+
+    private List<StudentRank> ranks(Board board, List<Long> studentIds) {
+        List<StudentRank> ranks = new ArrayList<>(studentIds.size());
+        for (Long studentId : studentIds) {
+            long[] totals = board.totals.get(studentId);
+            if (totals == null || totals[1] <= 0) {
+                continue;
+            }
+            double percentage = percentage(totals);
+            ranks.add(new StudentRank(studentId, percentage, board.tree.countAbove(percentage) + 1,
+                    board.tree.size()));
+        }
+        return ranks;
+    }
+
+    private synchronized void apply(MarkScore previous, MarkScore current) {
+        if (building) {
+            changedDuringBuild = true;
+        }
+        if (!ready) {
+            return;
+        }
+        add(boards, previous, -1);
+        add(boards, current, 1);
+    }
+
+    private static void add(Map<Scope, Board> target, MarkScore score, int sign) {
+        if (score == null) {
+            return;
+        }
+        add(target, new Scope(score.subject(), score.examType()), score, sign);
+        add(target, new Scope(score.subject(), null), score, sign);
+        add(target, new Scope(null, score.examType()), score, sign);
+        add(target, new Scope(null, null), score, sign);
+    }
+
+    private static void add(Map<Scope, Board> target, Scope scope, MarkScore score, int sign) {
+        Board board = target.computeIfAbsent(scope, s -> new Board());
+        long[] totals = board.totals.computeIfAbsent(score.studentId(), id -> new long[3]);
+        // Students whose max marks sum to zero have no percentage and stay out of the tree
+        if (totals[1] > 0) {
+            board.tree.remove(score.studentId(), percentage(totals));
+        }
+        totals[0] += sign * score.obtained();
+        totals[1] += sign * score.max();
+        totals[2] += sign;
+        if (totals[2] <= 0) {
+            board.totals.remove(score.studentId());
+        } else if (totals[1] > 0) {
+            board.tree.insert(score.studentId(), percentage(totals));
+        }
+    }
+
+    private static double percentage(long[] totals) {
+        return totals[0] * 100.0 / totals[1];
+    }
+}
@@ -1,20 +1,234 @@
 package com.example.studentmanagement.service;
 
 import com.example.studentmanagement.Mark;
+import com.example.studentmanagement.payload.BulkMarksRequest;
+import com.example.studentmanagement.payload.BulkMarksResult;
+import com.example.studentmanagement.payload.BulkUpsertResult;
 import com.example.studentmanagement.repository.MarkRepository;
+import com.example.studentmanagement.repository.StudentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class MarkService {
 
+    // Indexes into the per-outcome counts
+    private static final List<String> OUTCOMES = List.of("inserted", "updated", "unchanged", "rejected");
+
     @Autowired
     private MarkRepository markRepository;
 
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private MarkRanking markRanking;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReportCardVersions reportCardVersions;
+
     public Mark addMark(@org.springframework.lang.NonNull Mark mark) {
-        return markRepository.save(mark);
+        // A student has one mark per subject and exam type; posting it again overwrites it
+        Long id = mark.getId();
+        Optional<Mark> existing = id != null ? markRepository.findById(id)
+                : mark.getStudent() != null && mark.getStudent().getId() != null
+                        ? markRepository.findByStudentIdAndSubjectAndExamType(mark.getStudent().getId(),
+                                mark.getSubject(), mark.getExamType())
+                        : Optional.empty();
+        existing.ifPresent(found -> mark.setId(found.getId()));
+        // Taken before saving, which may write the new values into the same entity
+        MarkRanking.MarkScore previous = existing.map(MarkRanking.MarkScore::of).orElse(null);
+        Mark saved = markRepository.save(mark);
+        markRanking.record(previous, MarkRanking.MarkScore.of(saved));
+        if (previous != null) {
+            reportCardVersions.invalidate(previous.studentId());
+        }
+        if (saved.getStudent() != null) {
+            reportCardVersions.invalidate(saved.getStudent().getId());
+        }
+        return saved;
+    }
+
+    /** One mark to write; a null marksObtained means absent. */
+    public record MarkEntry(Long studentId, String subject, String examType, Integer marksObtained, int maxMarks) {
+    }
+
+    // Subject and exam type compare case-insensitively, as the unique key does under MySQL's collation
+    private record MarkKey(Long studentId, String subject, String examType) {
+
+        static MarkKey of(Long studentId, String subject, String examType) {
+            return new MarkKey(studentId, normalise(subject), normalise(examType));
+        }
+
+        static String normalise(String value) {
+            return value != null ? value.trim().toLowerCase(Locale.ROOT) : null;
+        }
+    }
+
+    /**
+     * Enters a whole mark sheet: one query finds the students' existing marks
+     * for the subject and exam type, then new and changed rows are written in
+     * two JDBC batches. Invalid rows are rejected individually; the rest of
+     * the sheet still goes in.
+     */
+    @Transactional
+    public BulkMarksResult markBulk(BulkMarksRequest request) {
+        String subject = request.getSubject() != null ? request.getSubject().trim() : "";
+        String examType = request.getExamType() != null ? request.getExamType().trim() : "";
+        Integer maxMarks = request.getMaxMarks();
+        if (subject.isEmpty() || examType.isEmpty() || maxMarks == null || maxMarks <= 0
+                || request.getEntries() == null) {
+            throw new IllegalArgumentException("A sheet needs subject, examType, a positive maxMarks and entries");
+        }
+
+        Set<Long> studentIds = new HashSet<>();
+        request.getEntries().forEach(entry -> {
+            if (entry != null && entry.getStudentId() != null) {
+                studentIds.add(entry.getStudentId());
+            }
+        });
+        Set<Long> knownStudents = findExistingStudents(studentIds);
+
+        // Per request row: its key, or null with a reason at the same index in problems
+        List<Long> rowStudents = new ArrayList<>();
+        List<MarkKey> keys = new ArrayList<>();
+        List<String> problems = new ArrayList<>();
+        Map<MarkKey, MarkEntry> valid = new LinkedHashMap<>();
+        for (BulkMarksRequest.Entry entry : request.getEntries()) {
+            Long studentId = entry != null ? entry.getStudentId() : null;
+            Integer obtained = entry != null ? entry.getMarksObtained() : null;
+            MarkKey key = MarkKey.of(studentId, subject, examType);
+            String problem = studentId == null ? "studentId is required"
+                    : !knownStudents.contains(studentId) ? "No such student"
+                            : valid.containsKey(key) ? "Student appears more than once on the sheet"
+                                    : obtained != null && (obtained < 0 || obtained > maxMarks)
+                                            ? "marksObtained must be between 0 and " + maxMarks
+                                            : null;
+            if (problem == null) {
+                valid.put(key, new MarkEntry(studentId, subject, examType, obtained, maxMarks));
+            }
+            rowStudents.add(studentId);
+            keys.add(problem == null ? key : null);
+            problems.add(problem);
+        }
+
+        Map<MarkKey, String> outcomes = upsert(valid);
+        List<BulkMarksResult.Row> rows = new ArrayList<>();
+        int[] counts = new int[4];
+        for (int i = 0; i < keys.size(); i++) {
+            MarkKey key = keys.get(i);
+            String outcome = key != null ? outcomes.get(key) : "rejected";
+            counts[OUTCOMES.indexOf(outcome)]++;
+            rows.add(new BulkMarksResult.Row(rowStudents.get(i), outcome, problems.get(i)));
+        }
+        return new BulkMarksResult(counts[0], counts[1], counts[2], counts[3], rows);
+    }
+
+    /**
+     * Writes marks for any mix of students, subjects and exam types in one
+     * transaction, inserting or overwriting by (student, subject, exam type).
+     * Entries must already be valid and refer to existing students; a later
+     * entry for the same key wins.
+     */
+    @Transactional
+    public BulkUpsertResult upsertMarks(List<MarkEntry> entries) {
+        Map<MarkKey, MarkEntry> requested = new LinkedHashMap<>();
+        for (MarkEntry entry : entries) {
+            requested.put(MarkKey.of(entry.studentId(), entry.subject(), entry.examType()), entry);
+        }
+        int[] counts = new int[4];
+        upsert(requested).values().forEach(outcome -> counts[OUTCOMES.indexOf(outcome)]++);
+        return new BulkUpsertResult(counts[0], counts[1], counts[2]);
+    }
+
+    /** The subset of the given ids that are students. */
+    public Set<Long> findExistingStudents(Collection<Long> studentIds) {
+        return studentIds.isEmpty() ? Set.of() : new HashSet<>(studentRepository.findIdsByIdIn(studentIds));
+    }
+
+    // One query for existing rows, then one insert batch and one update batch
+    private Map<MarkKey, String> upsert(Map<MarkKey, MarkEntry> requested) {
+        Map<MarkKey, String> outcomes = new HashMap<>();
+        if (requested.isEmpty()) {
+            return outcomes;
+        }
+        Set<Long> studentIds = new HashSet<>();
+        Set<String> subjects = new HashSet<>();
+        Set<String> examTypes = new HashSet<>();
+        requested.keySet().forEach(key -> {
+            studentIds.add(key.studentId());
+            subjects.add(key.subject());
+            examTypes.add(key.examType());
+        });
+
+        // The IN/IN/IN query can over-fetch across combinations; keep only requested keys
+        Map<MarkKey, Object[]> existing = new HashMap<>();
+        for (Object[] row : markRepository.findKeysByStudentIdInAndSubjectInAndExamTypeIn(studentIds, subjects,
+                examTypes)) {
+            MarkKey key = MarkKey.of((Long) row[1], (String) row[2], (String) row[3]);
+            if (requested.containsKey(key)) {
+                existing.put(key, row);
+            }
+        }
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (Map.Entry<MarkKey, MarkEntry> entry : requested.entrySet()) {
+            MarkKey key = entry.getKey();
+            MarkEntry mark = entry.getValue();
+            Object[] row = existing.get(key);
+            // An existing row keeps its stored spelling of subject and exam type
+            String subject = row != null ? (String) row[2] : mark.subject().trim();
+            String examType = row != null ? (String) row[3] : mark.examType().trim();
+            MarkRanking.MarkScore current = new MarkRanking.MarkScore(key.studentId(), subject, examType,
+                    mark.marksObtained() != null ? mark.marksObtained() : 0, mark.maxMarks());
+            if (row == null) {
+                inserts.add(new Object[] { key.studentId(), subject, examType, mark.marksObtained(),
+                        mark.maxMarks() });
+                markRanking.record(null, current);
+                outcomes.put(key, "inserted");
+            } else if (!Objects.equals(mark.marksObtained(), row[4]) || !Objects.equals(mark.maxMarks(), row[5])) {
+                updates.add(new Object[] { mark.marksObtained(), mark.maxMarks(), row[0] });
+                markRanking.record(new MarkRanking.MarkScore(key.studentId(), subject, examType,
+                        row[4] != null ? (Integer) row[4] : 0, (Integer) row[5]), current);
+                outcomes.put(key, "updated");
+            } else {
+                outcomes.put(key, "unchanged");
+            }
+        }
+
+        Set<Long> changedStudents = new HashSet<>();
+        outcomes.forEach((key, outcome) -> {
+            if (!"unchanged".equals(outcome)) {
+                changedStudents.add(key.studentId());
+            }
+        });
+        changedStudents.forEach(reportCardVersions::invalidate);
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO marks (student_id, subject, exam_type, marks_obtained, max_marks)"
+                    + " VALUES (?, ?, ?, ?, ?)", inserts);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE marks SET marks_obtained = ?, max_marks = ? WHERE id = ?", updates);
+        }
+        return outcomes;
     }
 
     public List<Mark> getMarksByStudent(Long studentId) {
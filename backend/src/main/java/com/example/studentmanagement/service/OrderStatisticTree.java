@@ -0,0 +1,168 @@
+package com.example.studentmanagement.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A treap of (score, id) pairs ordered by score, then id, where every node
+ * knows the size of its subtree. That gives O(log n) insert, remove and
+ * "how many score higher than x", and the first or last k entries in
+ * O(log n + k). Not thread-safe.
+ */
+class OrderStatisticTree {
+
+    private static final class Node {
+        final long id;
+        final double score;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(long id, double score, int priority) {
+            this.id = id;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    public int size() {
+        return size(root);
+    }
+
+    public void insert(long id, double score) {
+        root = insert(root, new Node(id, score, random.nextInt()));
+    }
+
+    /** Removes the entry; {@code score} must be the one it was inserted with. */
+    public void remove(long id, double score) {
+        root = remove(root, id, score);
+    }
+
+    /** Number of entries with a score strictly greater than {@code score}. */
+    public int countAbove(double score) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.score > score) {
+                count += size(node.right) + 1;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /** Ids of the {@code k} highest scores, highest first. */
+    public List<Long> highest(int k) {
+        List<Long> ids = new ArrayList<>(Math.min(k, size()));
+        collect(root, k, true, ids);
+        return ids;
+    }
+
+    /** Ids of the {@code k} lowest scores, lowest first. */
+    public List<Long> lowest(int k) {
+        List<Long> ids = new ArrayList<>(Math.min(k, size()));
+        collect(root, k, false, ids);
+        return ids;
+    }
+
+    private static void collect(Node node, int k, boolean descending, List<Long> ids) {
+        if (node == null || ids.size() >= k) {
+            return;
+        }
+        collect(descending ? node.right : node.left, k, descending, ids);
+        if (ids.size() < k) {
+            ids.add(node.id);
+        }
+        collect(descending ? node.left : node.right, k, descending, ids);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.score, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node remove(Node node, long id, double score) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(score, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, id, score);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, id, score);
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static int compare(double score, long id, Node node) {
+        int cmp = Double.compare(score, node.score);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.repository.AssignmentRepository;
+import com.example.studentmanagement.repository.LeaveRepository;
+import com.example.studentmanagement.repository.MarkRepository;
+import com.example.studentmanagement.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A student's marks, attendance, assignments and leaves in one response,
+ * cached per student until {@link ReportCardVersions} says it is stale.
+ * The version doubles as the ETag, so a client polling an unchanged card
+ * gets 304s without the card being built. The cache holds the
+ * {@code app.report-card.cache-size} most recently read cards.
+ */
+@Service
+public class ReportCardService {
+
+    private static final int ATTENDANCE_MONTHS = 6;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private MarkRepository markRepository;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Autowired
+    private LeaveRepository leaveRepository;
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private ReportCardVersions versions;
+
+    /** A built card and the ETag of the version it was built at. */
+    public record ReportCard(String etag, Map<String, Object> body) {
+    }
+
+    private Map<Long, ReportCard> cards;
+
+    @Value("${app.report-card.cache-size:5000}")
+    void setCacheSize(int cacheSize) {
+        // Access-ordered, so the least recently read card goes first
+        cards = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ReportCard> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public String etag(Long studentId) {
+        return versions.etag(studentId);
+    }
+
+    /** The student's card, or empty if there is no such student. */
+    public Optional<ReportCard> get(Long studentId) {
+        // Read the version first: a write landing mid-build bumps it, so that card is never served as current
+        String etag = versions.etag(studentId);
+        ReportCard cached = cards.get(studentId);
+        if (cached != null && cached.etag().equals(etag)) {
+            return Optional.of(cached);
+        }
+        Map<String, Object> body = build(studentId);
+        if (body == null) {
+            // Deleting a student bumps the version, so a card left from before ends up here
+            cards.remove(studentId);
+            return Optional.empty();
+        }
+        ReportCard card = new ReportCard(etag, body);
+        cards.put(studentId, card);
+        return Optional.of(card);
+    }
+
+    private Map<String, Object> build(Long studentId) {
+        List<Object[]> student = studentRepository.findNameAndCourseByIdIn(List.of(studentId));
+        if (student.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> card = new LinkedHashMap<>();
+        card.put("studentId", studentId);
+        card.put("name", student.get(0)[1]);
+        card.put("course", student.get(0)[2]);
+        card.put("subjects", subjects(studentId));
+        card.put("attendance", attendance(studentId));
+        card.put("assignments", assignments(studentId));
+        card.put("leaves", leaves(studentId));
+        return card;
+    }
+
+    // Marks grouped by subject, with each subject's overall percentage
+    private List<Map<String, Object>> subjects(Long studentId) {
+        Map<String, List<Map<String, Object>>> bySubject = new LinkedHashMap<>();
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        for (Object[] row : markRepository.findScoresByStudentId(studentId)) {
+            String subject = (String) row[0];
+            Integer obtained = (Integer) row[2];
+            int max = (Integer) row[3];
+            Map<String, Object> mark = new LinkedHashMap<>();
+            mark.put("examType", row[1]);
+            mark.put("marksObtained", obtained);
+            mark.put("maxMarks", max);
+            bySubject.computeIfAbsent(subject, s -> new ArrayList<>()).add(mark);
+            long[] sums = totals.computeIfAbsent(subject, s -> new long[2]);
+            sums[0] += obtained != null ? obtained : 0;
+            sums[1] += max;
+        }
+        List<Map<String, Object>> subjects = new ArrayList<>(bySubject.size());
+        bySubject.forEach((subject, marks) -> {
+            long[] sums = totals.get(subject);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("subject", subject);
+            entry.put("percentage", sums[1] > 0 ? Math.round(sums[0] * 1000.0 / sums[1]) / 10.0 : 0.0);
+            entry.put("marks", marks);
+            subjects.add(entry);
+        });
+        return subjects;
+    }
+
+    // Overall counts plus the last few months that have any attendance
+    private Map<String, Object> attendance(Long studentId) {
+        Map<String, Object> attendance = attendanceService.getStudentCounts(studentId, null, null).toMap();
+        List<Map<String, Object>> monthly = new ArrayList<>();
+        YearMonth current = YearMonth.now();
+        for (int i = ATTENDANCE_MONTHS - 1; i >= 0; i--) {
+            YearMonth month = current.minusMonths(i);
+            AttendanceCounts counts = attendanceService.getStudentCounts(studentId, month.atDay(1),
+                    month.atEndOfMonth());
+            if (counts.getTotal() > 0) {
+                Map<String, Object> entry = new LinkedHashMap<>(counts.toMap());
+                entry.put("month", month.toString());
+                monthly.add(entry);
+            }
+        }
+        attendance.put("monthly", monthly);
+        return attendance;
+    }
+
+    private List<Map<String, Object>> assignments(Long studentId) {
+        List<Map<String, Object>> assignments = new ArrayList<>();
+        for (Object[] row : assignmentRepository.findSummariesByStudentId(studentId)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", row[0]);
+            entry.put("title", row[1]);
+            entry.put("subject", row[2]);
+            entry.put("status", row[3]);
+            entry.put("grade", row[4]);
+            entry.put("submittedAt", row[5]);
+            entry.put("dueDate", row[6]);
+            assignments.add(entry);
+        }
+        return assignments;
+    }
+
+    // Requests per status and the days covered by approved leave
+    private Map<String, Object> leaves(Long studentId) {
+        Map<String, Object> leaves = new LinkedHashMap<>();
+        leaves.put("pending", 0L);
+        leaves.put("approved", 0L);
+        leaves.put("rejected", 0L);
+        long approvedDays = 0;
+        for (Object[] row : leaveRepository.findStatusAndDatesByStudentId(studentId)) {
+            String status = row[0] != null ? ((String) row[0]).toLowerCase() : "pending";
+            leaves.merge(status, 1L, (a, b) -> (Long) a + (Long) b);
+            if ("approved".equals(status) && row[1] != null && row[2] != null) {
+                approvedDays += ChronoUnit.DAYS.between((LocalDate) row[1], (LocalDate) row[2]) + 1;
+            }
+        }
+        leaves.put("approvedDays", approvedDays);
+        return leaves;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.studentmanagement.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-student version of the report card. Writes to marks, attendance,
+ * assignments, leaves or the student record call {@link #invalidate};
+ * {@link ReportCardService} serves a cached card only while its version is
+ * current. Kept apart from the card service so the services that write
+ * can depend on it without a cycle.
+ */
+@Component
+public class ReportCardVersions {
+
+    // Versions restart with the process, so ETags include an id for this run
+    private static final String BOOT_ID = Long.toString(UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE,
+            36);
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    /** The ETag for the student's current card. */
+    public String etag(Long studentId) {
+        return "\"" + BOOT_ID + "-" + studentId + "-" + versions.getOrDefault(studentId, 0L) + "\"";
+    }
+
+    /**
+     * Marks the student's card stale. Inside a transaction this happens once
+     * it commits, so a card built from the old data can't be cached under
+     * the new version.
+     */
+    public void invalidate(Long studentId) {
+        if (studentId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.merge(studentId, 1L, Long::sum);
+                }
+            });
+        } else {
+            versions.merge(studentId, 1L, Long::sum);
+        }
+    }
+}
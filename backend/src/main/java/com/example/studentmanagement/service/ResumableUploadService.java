@@ -0,0 +1,240 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.storage.FileStorage;
+import com.example.studentmanagement.storage.StoredFile;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads for large submissions. A client opens a session for a
+ * file of known size, sends its chunks in any order (retrying any that
+ * fail), asks which are missing after a dropped connection, and completes
+ * the session once all have arrived. The completed file goes to
+ * {@link FileStorage}.
+ *
+ * Each chunk is streamed from the request straight to its offset in the
+ * session's file with positional writes, so neither Tomcat nor this class
+ * holds more than a small buffer. Chunks are SHA-256 hashed as they are
+ * written and checked against the client's hash when one is sent.
+ *
+ * Sessions are kept in memory; a restart abandons them and their partial
+ * files are removed on the next start. Sessions idle for longer than
+ * {@code app.uploads.session-ttl-minutes} are removed periodically.
+ */
+@Service
+public class ResumableUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    @Value("${app.uploads.dir:${user.home}/student-mgmt-data/incoming}")
+    private String dir;
+
+    @Value("${app.uploads.max-bytes:1073741824}")
+    private long maxBytes;
+
+    @Value("${app.uploads.chunk-size:5242880}")
+    private int defaultChunkSize;
+
+    @Value("${app.uploads.session-ttl-minutes:1440}")
+    private long sessionTtlMinutes;
+
+    @Value("${app.uploads.max-sessions-per-user:5}")
+    private int maxSessionsPerUser;
+
+    private Path dirPath;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        dirPath = Paths.get(dir).toAbsolutePath();
+        Files.createDirectories(dirPath);
+        // Partial files from before a restart belong to sessions that no longer exist
+        deleteParts(dirPath);
+        // Including those from when partial files were kept under the publicly served upload directory
+        Path legacy = Paths.get(System.getProperty("user.home"), "student-mgmt-uploads", "incoming");
+        if (!legacy.toAbsolutePath().equals(dirPath) && Files.isDirectory(legacy)) {
+            deleteParts(legacy);
+        }
+    }
+
+    private static void deleteParts(Path directory) throws IOException {
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*.part")) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+    }
+
+    /**
+     * Opens a session. {@code chunkSize} is the client's preference and may
+     * be null; the server clamps it and reports the size to use.
+     *
+     * @throws IllegalArgumentException for a size outside the limits
+     * @throws IllegalStateException    if the user has too many open sessions
+     */
+    public UploadSession create(Long ownerUserId, Long studentId, Long taskId, String fileName, String contentType,
+            long size, Integer chunkSize) throws IOException {
+        if (size <= 0 || size > maxBytes) {
+            throw new IllegalArgumentException("File size must be between 1 and " + maxBytes + " bytes");
+        }
+        long open = sessions.values().stream().filter(s -> s.ownerUserId().equals(ownerUserId)).count();
+        if (open >= maxSessionsPerUser) {
+            throw new IllegalStateException("Too many unfinished uploads; complete or cancel one first");
+        }
+        int effectiveChunkSize = Math.max(MIN_CHUNK_SIZE,
+                Math.min(MAX_CHUNK_SIZE, chunkSize != null ? chunkSize : defaultChunkSize));
+        String id = UUID.randomUUID().toString();
+        Path file = Files.createFile(dirPath.resolve(id + ".part"));
+        UploadSession session = new UploadSession(id, ownerUserId, studentId, taskId, fileName, contentType, size,
+                effectiveChunkSize, file);
+        sessions.put(id, session);
+        logger.debug("Opened upload {} for {} ({} bytes in {} chunks)", id, fileName, size,
+                session.getChunkCount());
+        return session;
+    }
+
+    /** The session, if it exists and belongs to {@code userId}. */
+    public Optional<UploadSession> find(String uploadId, Long userId) {
+        UploadSession session = sessions.get(uploadId);
+        return session != null && session.ownerUserId().equals(userId) ? Optional.of(session) : Optional.empty();
+    }
+
+    /**
+     * Writes chunk {@code index} from {@code body}. Resending a chunk that
+     * already arrived overwrites it, and the chunk is missing again if the
+     * resend fails.
+     *
+     * @param sha256 hex SHA-256 the client computed for the chunk, or null
+     * @throws IllegalArgumentException for a bad index, length or checksum; the chunk stays missing
+     * @throws IllegalStateException    if the chunk is being written by another request or the upload is completing
+     */
+    public void writeChunk(UploadSession session, int index, InputStream body, String sha256) throws IOException {
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new IllegalArgumentException("Chunk index must be between 0 and " + (session.getChunkCount() - 1));
+        }
+        session.beginChunk(index);
+        boolean stored = false;
+        try {
+            long offset = session.offsetOf(index);
+            int expected = session.lengthOf(index);
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[64 * 1024];
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(session.file(), StandardOpenOption.WRITE)) {
+                int n;
+                while ((n = body.read(buffer)) != -1) {
+                    if (written + n > expected) {
+                        throw new IllegalArgumentException("Chunk " + index + " must be " + expected + " bytes");
+                    }
+                    digest.update(buffer, 0, n);
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, n);
+                    while (bytes.hasRemaining()) {
+                        written += channel.write(bytes, offset + written);
+                    }
+                }
+            }
+            if (written != expected) {
+                throw new IllegalArgumentException(
+                        "Chunk " + index + " must be " + expected + " bytes, received " + written);
+            }
+            String actual = HexFormat.of().formatHex(digest.digest());
+            if (sha256 != null && !sha256.equalsIgnoreCase(actual)) {
+                throw new IllegalArgumentException("Checksum mismatch for chunk " + index);
+            }
+            stored = true;
+        } finally {
+            session.endChunk(index, stored);
+            session.touch();
+        }
+    }
+
+    /**
+     * Moves the assembled file into storage and closes the session. The
+     * caller owns the returned reference.
+     *
+     * @param sha256 hex SHA-256 of the whole file, or null to skip the check
+     * @throws IllegalStateException    if chunks are missing or still arriving
+     * @throws IllegalArgumentException if the file does not match {@code sha256}; the session is closed
+     */
+    public StoredFile complete(UploadSession session, String sha256) throws IOException {
+        session.beginComplete();
+        StoredFile stored;
+        try {
+            stored = fileStorage.store(session.file());
+        } catch (IOException | RuntimeException e) {
+            session.abortComplete();
+            throw e;
+        }
+        sessions.remove(session.getId());
+        if (sha256 != null && !sha256.equalsIgnoreCase(stored.digest())) {
+            fileStorage.release(stored.digest());
+            throw new IllegalArgumentException("The assembled file does not match the expected checksum");
+        }
+        return stored;
+    }
+
+    public void cancel(UploadSession session) {
+        if (sessions.remove(session.getId()) != null) {
+            delete(session);
+        }
+    }
+
+    @Scheduled(fixedDelay = 600000)
+    public void purgeStale() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(sessionTtlMinutes);
+        sessions.values().removeIf(session -> {
+            if (session.getLastActivity().isBefore(cutoff)) {
+                logger.info("Removing idle upload {} ({}, {} of {} chunks)", session.getId(),
+                        session.getFileName(), session.getReceivedChunks(), session.getChunkCount());
+                delete(session);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static void delete(UploadSession session) {
+        try {
+            Files.deleteIfExists(session.file());
+        } catch (IOException e) {
+            logger.warn("Could not delete partial upload {}: {}", session.file(), e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.Event;
+import com.example.studentmanagement.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Which days are school days: every day except the configured weekend days
+ * and "Holidays" events.
+ */
+@Component
+public class SchoolCalendar {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Value("${app.attendance.weekend-days:SATURDAY,SUNDAY}")
+    private Set<DayOfWeek> weekendDays;
+
+    public Set<DayOfWeek> getWeekendDays() {
+        return weekendDays;
+    }
+
+    /** Holiday dates between {@code start} and {@code end} inclusive, in order. */
+    public Set<LocalDate> holidays(LocalDate start, LocalDate end) {
+        Set<LocalDate> holidays = new TreeSet<>();
+        for (Event event : eventRepository.findByDateBetween(start, end)) {
+            if ("Holidays".equalsIgnoreCase(event.getType())) {
+                holidays.add(event.getDate());
+            }
+        }
+        return holidays;
+    }
+
+    public boolean isWorkingDay(LocalDate day, Set<LocalDate> holidays) {
+        return !weekendDays.contains(day.getDayOfWeek()) && !holidays.contains(day);
+    }
+
+    // Days in the range that are neither weekend days nor holidays
+    public List<LocalDate> workingDays(LocalDate start, LocalDate end) {
+        Set<LocalDate> holidays = holidays(start, end);
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            if (isWorkingDay(day, holidays)) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+}
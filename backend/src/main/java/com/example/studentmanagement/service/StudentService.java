@@ -14,6 +14,9 @@ public class StudentService {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private ReportCardVersions reportCardVersions;
+
     public List<Student> getAllStudents() {
         return studentRepository.findAll();
     }
@@ -23,11 +26,14 @@ public class StudentService {
     }
 
     public Student saveStudent(@org.springframework.lang.NonNull Student student) {
-        return studentRepository.save(student);
+        Student saved = studentRepository.save(student);
+        reportCardVersions.invalidate(saved.getId());
+        return saved;
     }
 
     public void deleteStudent(@org.springframework.lang.NonNull Long id) {
         studentRepository.deleteById(id);
+        reportCardVersions.invalidate(id);
     }
 
     public Student updateStudent(@org.springframework.lang.NonNull Long id, Student studentDetails) {
@@ -35,7 +41,9 @@ public class StudentService {
         student.setName(studentDetails.getName());
         student.setEmail(studentDetails.getEmail());
         student.setCourse(studentDetails.getCourse());
-        return studentRepository.save(student);
+        Student saved = studentRepository.save(student);
+        reportCardVersions.invalidate(id);
+        return saved;
     }
 
     public Optional<Student> getStudentByUserId(Long userId) {
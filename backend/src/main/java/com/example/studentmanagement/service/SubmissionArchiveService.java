@@ -0,0 +1,152 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.repository.AssignmentRepository;
+import com.example.studentmanagement.storage.FileStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes every submission for a task as one ZIP, entry by entry, so memory
+ * use does not depend on the number or size of submissions. Entries are
+ * grouped into a folder per student.
+ *
+ * Files that are already compressed are STORED rather than deflated again.
+ * STORED entries must declare their CRC and size before the data, which
+ * costs a read of the file ahead of the copy; the second read is normally
+ * served from the page cache.
+ */
+@Service
+public class SubmissionArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionArchiveService.class);
+
+    // Formats that deflate cannot meaningfully shrink
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "zip", "gz", "tgz", "bz2", "xz", "7z", "rar",
+            "jpg", "jpeg", "png", "gif", "webp", "heic",
+            "mp3", "m4a", "aac", "ogg", "mp4", "mov", "mkv", "webm", "avi",
+            "pdf", "docx", "xlsx", "pptx", "odt", "ods", "odp", "jar", "epub");
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    /** Writes the archive for {@code taskId} to {@code out}, which is left open. */
+    public void write(Long taskId, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        List<Object[]> submissions = assignmentRepository.findArchiveEntriesByTaskId(taskId);
+        Set<String> names = new HashSet<>();
+        List<String> missing = new ArrayList<>();
+        int written = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        for (Object[] row : submissions) {
+            Long id = (Long) row[0];
+            String folder = safeName((String) row[2], "student") + "_" + row[1] + "/";
+            LocalDateTime submittedAt = (LocalDateTime) row[7];
+
+            if ("TEXT".equalsIgnoreCase((String) row[3])) {
+                String content = assignmentRepository.findContentById(id).orElse("");
+                ZipEntry entry = new ZipEntry(uniqueName(names, folder + "submission.txt", id));
+                setTime(entry, submittedAt);
+                zip.putNextEntry(entry);
+                zip.write(content.getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+                written++;
+                continue;
+            }
+
+            String fileName = safeName((String) row[4], "file");
+            Path path = row[5] != null ? fileStorage.resolve((String) row[5])
+                    : row[6] != null ? Paths.get((String) row[6]) : null;
+            if (path == null || !Files.isReadable(path)) {
+                missing.add(folder + fileName);
+                continue;
+            }
+            ZipEntry entry = new ZipEntry(uniqueName(names, folder + fileName, id));
+            setTime(entry, submittedAt);
+            if (isCompressed(fileName)) {
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(Files.size(path));
+                entry.setCompressedSize(entry.getSize());
+                entry.setCrc(crc(path));
+            }
+            zip.putNextEntry(entry);
+            Files.copy(path, zip);
+            zip.closeEntry();
+            written++;
+        }
+
+        if (!missing.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("MISSING_FILES.txt"));
+            zip.write(("These submissions have no file on the server:\n" + String.join("\n", missing) + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+        logger.info("Streamed {} of {} submissions for task {} in {} ms", written, submissions.size(), taskId,
+                System.currentTimeMillis() - start);
+    }
+
+    private static boolean isCompressed(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && COMPRESSED_EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static long crc(Path path) throws IOException {
+        try (CheckedInputStream in = new CheckedInputStream(Files.newInputStream(path), new CRC32())) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return in.getChecksum().getValue();
+        }
+    }
+
+    // A student may have submitted more than once, or two files may share a name
+    private static String uniqueName(Set<String> names, String name, Long submissionId) {
+        if (names.add(name)) {
+            return name;
+        }
+        int dot = name.lastIndexOf('.');
+        String unique = dot > name.lastIndexOf('/') ? name.substring(0, dot) + "_" + submissionId + name.substring(dot)
+                : name + "_" + submissionId;
+        names.add(unique);
+        return unique;
+    }
+
+    // Keeps names portable across unzip tools: no path separators, control or reserved characters
+    private static String safeName(String name, String fallback) {
+        if (name == null || name.isBlank()) {
+            return fallback;
+        }
+        String safe = name.trim().replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").replaceAll("\\s+", "_");
+        return safe.equals(".") || safe.equals("..") ? fallback : safe;
+    }
+
+    private static void setTime(ZipEntry entry, LocalDateTime time) {
+        if (time != null) {
+            entry.setTimeLocal(time);
+        }
+    }
+}
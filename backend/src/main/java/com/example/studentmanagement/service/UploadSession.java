@@ -0,0 +1,155 @@
+package com.example.studentmanagement.service;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One resumable upload: the file is split into fixed-size chunks (the last
+ * may be shorter) that can arrive in any order and be retried. Chunk state
+ * is guarded by the session's monitor.
+ */
+public class UploadSession {
+
+    private final String id;
+    private final Long ownerUserId;
+    private final Long studentId;
+    private final Long taskId;
+    private final String fileName;
+    private final String contentType;
+    private final long size;
+    private final int chunkSize;
+    private final int chunkCount;
+    private final Path file;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private volatile LocalDateTime lastActivity = createdAt;
+    private final BitSet received;
+    private final Set<Integer> inFlight = new HashSet<>();
+    private boolean completing;
+
+    UploadSession(String id, Long ownerUserId, Long studentId, Long taskId, String fileName, String contentType,
+            long size, int chunkSize, Path file) {
+        this.id = id;
+        this.ownerUserId = ownerUserId;
+        this.studentId = studentId;
+        this.taskId = taskId;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.chunkCount = size == 0 ? 0 : (int) ((size + chunkSize - 1) / chunkSize);
+        this.file = file;
+        this.received = new BitSet(chunkCount);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getLastActivity() {
+        return lastActivity;
+    }
+
+    public synchronized int getReceivedChunks() {
+        return received.cardinality();
+    }
+
+    // What a resuming client still has to send
+    public synchronized List<Integer> getMissingChunks() {
+        List<Integer> missing = new ArrayList<>();
+        for (int i = received.nextClearBit(0); i < chunkCount; i = received.nextClearBit(i + 1)) {
+            missing.add(i);
+        }
+        return missing;
+    }
+
+    Long ownerUserId() {
+        return ownerUserId;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    long offsetOf(int index) {
+        return (long) index * chunkSize;
+    }
+
+    int lengthOf(int index) {
+        return (int) Math.min(chunkSize, size - offsetOf(index));
+    }
+
+    void touch() {
+        lastActivity = LocalDateTime.now();
+    }
+
+    // Claims a chunk for writing; a chunk can only be written by one request at a time.
+    // The chunk counts as missing until the write succeeds, since a retry overwrites its bytes as it streams.
+    synchronized void beginChunk(int index) {
+        if (completing) {
+            throw new IllegalStateException("The upload is being completed");
+        }
+        if (!inFlight.add(index)) {
+            throw new IllegalStateException("Chunk " + index + " is already being uploaded");
+        }
+        received.clear(index);
+    }
+
+    synchronized void endChunk(int index, boolean stored) {
+        inFlight.remove(index);
+        if (stored) {
+            received.set(index);
+        }
+    }
+
+    // Once this succeeds no more chunks are accepted
+    synchronized void beginComplete() {
+        if (completing) {
+            throw new IllegalStateException("The upload is already being completed");
+        }
+        if (!inFlight.isEmpty() || received.cardinality() < chunkCount) {
+            throw new IllegalStateException("Not all chunks have arrived");
+        }
+        completing = true;
+    }
+
+    synchronized void abortComplete() {
+        completing = false;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.studentmanagement.storage;
+
+import com.example.studentmanagement.StoredBlob;
+import com.example.studentmanagement.repository.StoredBlobRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * {@link FileStorage} on the local disk. Content for digest {@code abcd...}
+ * lives at {@code <root>/ab/cd/abcd...}, so the 65,536 leaf directories stay
+ * small even with millions of files. Uploads are written to
+ * {@code <root>/tmp} while being hashed and then moved into place, so a
+ * half-written file never appears under its digest.
+ *
+ * Reference counts live in stored_blob. Updates for one digest are
+ * serialized by a lock stripe, which assumes a single application instance
+ * writes to the directory.
+ */
+@Component
+public class ContentAddressedFileStorage implements FileStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentAddressedFileStorage.class);
+
+    private static final Pattern DIGEST = Pattern.compile("[0-9a-f]{64}");
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Value("${app.storage.root:${user.home}/student-mgmt-data/blobs}")
+    private String root;
+
+    private Path rootPath;
+    private Path tempPath;
+    private final Object[] locks = new Object[64];
+
+    @PostConstruct
+    void init() throws IOException {
+        rootPath = Paths.get(root).toAbsolutePath();
+        moveLegacyRoot();
+        tempPath = rootPath.resolve("tmp");
+        Files.createDirectories(tempPath);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // Blobs used to live under the publicly served upload directory; move them out on first start
+    private void moveLegacyRoot() throws IOException {
+        Path legacy = Paths.get(System.getProperty("user.home"), "student-mgmt-uploads", "blobs").toAbsolutePath();
+        if (legacy.equals(rootPath) || !Files.isDirectory(legacy) || Files.exists(rootPath)) {
+            return;
+        }
+        Files.createDirectories(rootPath.getParent());
+        Files.move(legacy, rootPath, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Moved stored files from {} to {}", legacy, rootPath);
+    }
+
+    @Override
+    public StoredFile store(InputStream content) throws IOException {
+        MessageDigest sha256 = sha256();
+        Path temp = Files.createTempFile(tempPath, "upload-", ".part");
+        try {
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), sha256)) {
+                size = content.transferTo(out);
+            }
+            return commit(temp, HexFormat.of().formatHex(sha256.digest()), size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public StoredFile store(Path file) throws IOException {
+        Path temp = Files.createTempFile(tempPath, "upload-", ".part");
+        try {
+            // A rename on the same file system; afterwards the file is ours alone
+            Files.move(file, temp, StandardCopyOption.REPLACE_EXISTING);
+            MessageDigest sha256 = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(Files.newInputStream(temp), sha256)) {
+                size = in.transferTo(OutputStream.nullOutputStream());
+            }
+            return commit(temp, HexFormat.of().formatHex(sha256.digest()), size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Moves a hashed temp file under its digest, unless that content is already stored, and adds a reference
+    private StoredFile commit(Path temp, String digest, long size) throws IOException {
+        Path target = resolve(digest);
+        boolean duplicate;
+        synchronized (lockFor(digest)) {
+            duplicate = Files.exists(target);
+            if (!duplicate) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            if (storedBlobRepository.adjustRefCount(digest, 1) == 0) {
+                StoredBlob blob = new StoredBlob();
+                blob.setDigest(digest);
+                blob.setSize(size);
+                blob.setRefCount(1);
+                blob.setCreatedAt(LocalDateTime.now());
+                storedBlobRepository.save(blob);
+            }
+        }
+        logger.debug("Stored {} bytes as {}{}", size, digest, duplicate ? " (duplicate)" : "");
+        return new StoredFile(digest, size, duplicate);
+    }
+
+    @Override
+    public Path resolve(String digest) {
+        if (digest == null || !DIGEST.matcher(digest).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 digest: " + digest);
+        }
+        return rootPath.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+    @Override
+    public void release(String digest) {
+        Path path = resolve(digest);
+        synchronized (lockFor(digest)) {
+            storedBlobRepository.adjustRefCount(digest, -1);
+            StoredBlob blob = storedBlobRepository.findById(digest).orElse(null);
+            if (blob != null && blob.getRefCount() > 0) {
+                return;
+            }
+            if (blob != null) {
+                storedBlobRepository.delete(blob);
+            }
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("Could not delete unreferenced file {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Object[] row = storedBlobRepository.summarize().get(0);
+        long stored = ((Number) row[1]).longValue();
+        long referenced = ((Number) row[2]).longValue();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("files", ((Number) row[0]).longValue());
+        metrics.put("bytesStored", stored);
+        metrics.put("bytesSavedByDedupe", referenced - stored);
+        return metrics;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Object lockFor(String digest) {
+        return locks[Integer.parseInt(digest.substring(0, 2), 16) % locks.length];
+    }
+}
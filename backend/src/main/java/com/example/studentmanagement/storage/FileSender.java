@@ -0,0 +1,244 @@
+package com.example.studentmanagement.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes a file to the response with conditional GET (ETag and
+ * Last-Modified) and byte ranges, single or multipart/byteranges.
+ *
+ * A whole file or a single range is handed to Tomcat's sendfile support
+ * when the connector offers it, so the kernel copies straight from the page
+ * cache to the socket without the bytes passing through the JVM. Otherwise,
+ * and for multipart responses, {@link FileChannel#transferTo} writes to the
+ * response stream.
+ *
+ * Files are uploaded by users, so only types a browser cannot run script
+ * from are ever shown inline; everything else is sent as an attachment, and
+ * nosniff stops the browser from second-guessing the declared type.
+ */
+@Component
+public class FileSender {
+
+    // Tomcat request attributes for sendfile, as used by its DefaultServlet
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // Below this the socket handoff costs more than copying
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    // No SVG: it can carry script
+    private static final Set<String> INLINE_TYPES = Set.of("application/pdf", "text/plain", "image/png",
+            "image/jpeg", "image/gif", "image/webp", "image/bmp");
+
+    /**
+     * Sends {@code path}. A null {@code etag} is derived from the file's size
+     * and modification time; callers that know a content hash should pass it.
+     */
+    public void send(HttpServletRequest request, HttpServletResponse response, Path path, String contentType,
+            ContentDisposition disposition, String etag, CacheControl cacheControl) throws IOException {
+        long length = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        if (etag == null) {
+            etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        // Sets ETag and Last-Modified, and answers 304/412 from the request's preconditions
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (disposition.isInline() && !isInlineSafe(contentType)) {
+            disposition = disposition(false, disposition.getFilename());
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        boolean head = "HEAD".equals(request.getMethod());
+
+        List<long[]> ranges = ranges(request, etag, lastModified, length);
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setContentLength(0);
+            return;
+        }
+        if (ranges.isEmpty()) {
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            if (!head) {
+                sendRange(request, response, path, 0, length);
+            }
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            long start = ranges.get(0)[0];
+            long end = ranges.get(0)[1];
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            response.setContentLengthLong(end - start + 1);
+            if (!head) {
+                sendRange(request, response, path, start, end - start + 1);
+            }
+            return;
+        }
+
+        // Multipart: the length is known up front, so no chunked encoding
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n" + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + range[0] + "-" + range[1] + "/" + length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range[1] - range[0] + 1;
+        }
+        byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += end.length;
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders.get(i));
+                transfer(channel, ranges.get(i)[0], ranges.get(i)[1] - ranges.get(i)[0] + 1, target);
+            }
+        }
+        out.write(end);
+    }
+
+    /** Content-Disposition for a download; only non-ASCII names need the RFC 5987 encoded form. */
+    public static ContentDisposition disposition(boolean inline, String fileName) {
+        ContentDisposition.Builder builder = ContentDisposition.builder(inline ? "inline" : "attachment");
+        if (fileName == null) {
+            return builder.build();
+        }
+        if (StandardCharsets.US_ASCII.newEncoder().canEncode(fileName)) {
+            builder.filename(fileName);
+        } else {
+            builder.filename(fileName, StandardCharsets.UTF_8);
+        }
+        return builder.build();
+    }
+
+    /** Whether a file of this type can be shown in the browser rather than downloaded. */
+    public static boolean isInlineSafe(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        String type = mediaType.getType() + "/" + mediaType.getSubtype();
+        return INLINE_TYPES.contains(type) || "audio".equals(mediaType.getType())
+                || "video".equals(mediaType.getType());
+    }
+
+    /**
+     * Requested ranges as inclusive {start, end} pairs: empty for the whole
+     * file, null if none can be satisfied. A malformed, stale (If-Range) or
+     * oversized Range header is ignored, which RFC 9110 allows.
+     */
+    private static List<long[]> ranges(HttpServletRequest request, String etag, long lastModified, long length) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || length == 0 || !isCurrent(request, etag, lastModified)) {
+            return List.of();
+        }
+        List<HttpRange> requested;
+        try {
+            requested = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+        List<long[]> ranges = new ArrayList<>(requested.size());
+        long total = 0;
+        for (HttpRange range : requested) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            if (start < length && start <= end) {
+                ranges.add(new long[] { start, end });
+                total += end - start + 1;
+            }
+        }
+        if (ranges.isEmpty()) {
+            return null;
+        }
+        // Many overlapping ranges would multiply the bytes sent; send the file once instead
+        return total > length ? List.of() : ranges;
+    }
+
+    // If-Range: only honour Range if the client's copy is still the current one
+    private static boolean isCurrent(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == lastModified / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void sendRange(HttpServletRequest request, HttpServletResponse response, Path path, long start,
+            long count) throws IOException {
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat sends the file once the handler returns, as long as nothing was written
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            transfer(channel, start, count, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target)
+            throws IOException {
+        while (count > 0) {
+            long sent = channel.transferTo(position, count, target);
+            if (sent <= 0) {
+                // The file shrank underneath us
+                throw new IOException("Unexpected end of file at " + position);
+            }
+            position += sent;
+            count -= sent;
+        }
+    }
+}
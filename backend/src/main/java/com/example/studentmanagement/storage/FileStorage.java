@@ -0,0 +1,35 @@
+package com.example.studentmanagement.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Storage for uploaded files, addressed by the SHA-256 of their content.
+ * Storing bytes that are already present keeps a single copy and adds a
+ * reference to it; {@link #release} drops a reference and removes the
+ * content once nothing points at it.
+ */
+public interface FileStorage {
+
+    /** Streams the content to storage, hashing it on the way. Does not close {@code content}. */
+    StoredFile store(InputStream content) throws IOException;
+
+    /**
+     * Stores a complete file that is already on disk, moving it rather than
+     * copying when it is on the same file system. {@code file} is gone afterwards.
+     */
+    StoredFile store(Path file) throws IOException;
+
+    /**
+     * Where the content with the given digest lives on disk. Throws
+     * IllegalArgumentException if {@code digest} is not a hex SHA-256.
+     */
+    Path resolve(String digest);
+
+    /** Drops one reference, deleting the content when it was the last. */
+    void release(String digest);
+
+    Map<String, Object> metrics();
+}
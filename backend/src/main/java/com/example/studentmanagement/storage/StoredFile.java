@@ -0,0 +1,8 @@
+package com.example.studentmanagement.storage;
+
+/**
+ * Result of storing an upload: the content's hex SHA-256, its size in bytes
+ * and whether identical content was already stored.
+ */
+public record StoredFile(String digest, long size, boolean duplicate) {
+}
@@ -0,0 +1,43 @@
+package com.example.studentmanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GradeStatsTest {
+
+    @Test
+    void marksJustBelowABoundaryStayInTheLowerBand() {
+        GradeStats stats = new GradeStats();
+        stats.add(499, 5000); // 9.98%
+        stats.add(999, 5000); // 19.98%
+        stats.add(4999, 5000); // 99.98%
+        assertArrayEquals(new long[] { 1, 1, 0, 0, 0, 0, 0, 0, 0, 1 }, stats.histogram());
+    }
+
+    @Test
+    void marksOnABoundaryGoInTheUpperBand() {
+        GradeStats stats = new GradeStats();
+        stats.add(0, 30);
+        stats.add(3, 30);
+        stats.add(20, 30);
+        stats.add(30, 30);
+        assertArrayEquals(new long[] { 1, 1, 0, 0, 0, 0, 1, 0, 0, 1 }, stats.histogram());
+    }
+
+    @Test
+    void mergeCombinesBandsAndMedian() {
+        GradeStats first = new GradeStats();
+        first.add(10, 100);
+        first.add(null, 100);
+        GradeStats second = new GradeStats();
+        second.add(50, 100);
+        second.add(90, 100);
+        first.merge(second);
+        assertEquals(3, first.getCount());
+        assertEquals(1, first.getAbsent());
+        assertEquals(50.0, first.quantile(0.5));
+        assertArrayEquals(new long[] { 0, 1, 0, 0, 0, 1, 0, 0, 0, 1 }, first.histogram());
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.studentmanagement.service;
+
+import com.example.studentmanagement.storage.FileStorage;
+import com.example.studentmanagement.storage.StoredFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResumableUploadServiceTest {
+
+    private static final int CHUNK = 256 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private final InMemoryStorage storage = new InMemoryStorage();
+    private ResumableUploadService uploads;
+    private byte[] content;
+    private UploadSession session;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        uploads = new ResumableUploadService();
+        ReflectionTestUtils.setField(uploads, "fileStorage", storage);
+        ReflectionTestUtils.setField(uploads, "dir", tempDir.toString());
+        ReflectionTestUtils.setField(uploads, "maxBytes", 16L * 1024 * 1024);
+        ReflectionTestUtils.setField(uploads, "defaultChunkSize", CHUNK);
+        ReflectionTestUtils.setField(uploads, "maxSessionsPerUser", 5);
+        uploads.init();
+
+        // Two full chunks and a short last one
+        content = new byte[2 * CHUNK + 1000];
+        new Random(42).nextBytes(content);
+        session = uploads.create(1L, 2L, 3L, "video.mp4", "video/mp4", content.length, null);
+    }
+
+    @Test
+    void outOfOrderChunksAssembleTheFile() throws IOException {
+        assertEquals(3, session.getChunkCount());
+        write(2);
+        write(0);
+        assertEquals(List.of(1), session.getMissingChunks());
+        write(1);
+
+        StoredFile stored = uploads.complete(session, sha256(content));
+        assertArrayEquals(content, storage.files.get(stored.digest()));
+        assertTrue(uploads.find(session.getId(), 1L).isEmpty());
+    }
+
+    @Test
+    void completeRefusesMissingChunks() throws IOException {
+        write(0);
+        write(2);
+        assertThrows(IllegalStateException.class, () -> uploads.complete(session, null));
+        write(1);
+        uploads.complete(session, null);
+    }
+
+    @Test
+    void shortLastChunkMustHaveItsExactLength() throws IOException {
+        assertThrows(IllegalArgumentException.class,
+                () -> uploads.writeChunk(session, 2, new ByteArrayInputStream(new byte[CHUNK]), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> uploads.writeChunk(session, 2, new ByteArrayInputStream(new byte[999]), null));
+        assertEquals(List.of(0, 1, 2), session.getMissingChunks());
+        write(2);
+        assertEquals(List.of(0, 1), session.getMissingChunks());
+    }
+
+    @Test
+    void checksumMismatchLeavesChunkMissing() throws IOException {
+        byte[] chunk = slice(1);
+        byte[] corrupted = chunk.clone();
+        corrupted[10] ^= 1;
+        assertThrows(IllegalArgumentException.class,
+                () -> uploads.writeChunk(session, 1, new ByteArrayInputStream(corrupted), sha256(chunk)));
+        assertEquals(List.of(0, 1, 2), session.getMissingChunks());
+        uploads.writeChunk(session, 1, new ByteArrayInputStream(chunk), sha256(chunk));
+        assertEquals(List.of(0, 2), session.getMissingChunks());
+    }
+
+    @Test
+    void retryReplacesChunk() throws IOException {
+        byte[] wrong = new byte[CHUNK];
+        uploads.writeChunk(session, 0, new ByteArrayInputStream(wrong), null);
+        write(0);
+        write(1);
+        write(2);
+        StoredFile stored = uploads.complete(session, null);
+        assertArrayEquals(content, storage.files.get(stored.digest()));
+    }
+
+    @Test
+    void failedRetryOfReceivedChunkMakesItMissing() throws IOException {
+        write(0);
+        write(1);
+        write(2);
+        // The retry overwrites half the chunk before the connection drops
+        InputStream dropped = new InputStream() {
+            private final InputStream half = new ByteArrayInputStream(new byte[CHUNK / 2]);
+
+            @Override
+            public int read() throws IOException {
+                int b = half.read();
+                if (b == -1) {
+                    throw new IOException("Connection reset");
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                int n = half.read(buffer, off, len);
+                if (n == -1) {
+                    throw new IOException("Connection reset");
+                }
+                return n;
+            }
+        };
+        assertThrows(IOException.class, () -> uploads.writeChunk(session, 1, dropped, null));
+        assertEquals(List.of(1), session.getMissingChunks());
+        assertThrows(IllegalStateException.class, () -> uploads.complete(session, null));
+
+        write(1);
+        StoredFile stored = uploads.complete(session, null);
+        assertArrayEquals(content, storage.files.get(stored.digest()));
+    }
+
+    @Test
+    void wholeFileChecksumMismatchIsRejected() throws IOException {
+        write(0);
+        write(1);
+        write(2);
+        byte[] other = content.clone();
+        other[0] ^= 1;
+        assertThrows(IllegalArgumentException.class, () -> uploads.complete(session, sha256(other)));
+        assertTrue(storage.files.isEmpty());
+    }
+
+    @Test
+    void badIndexIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> uploads.writeChunk(session, 3, new ByteArrayInputStream(new byte[0]), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> uploads.writeChunk(session, -1, new ByteArrayInputStream(new byte[0]), null));
+    }
+
+    private void write(int index) throws IOException {
+        byte[] chunk = slice(index);
+        uploads.writeChunk(session, index, new ByteArrayInputStream(chunk), sha256(chunk));
+    }
+
+    private byte[] slice(int index) {
+        int from = (int) session.offsetOf(index);
+        return Arrays.copyOfRange(content, from, from + session.lengthOf(index));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class InMemoryStorage implements FileStorage {
+
+        final Map<String, byte[]> files = new HashMap<>();
+
+        @Override
+        public StoredFile store(InputStream content) throws IOException {
+            byte[] bytes = content.readAllBytes();
+            String digest = sha256(bytes);
+            boolean duplicate = files.put(digest, bytes) != null;
+            return new StoredFile(digest, bytes.length, duplicate);
+        }
+
+        @Override
+        public StoredFile store(Path file) throws IOException {
+            StoredFile stored;
+            try (InputStream in = Files.newInputStream(file)) {
+                stored = store(in);
+            }
+            Files.delete(file);
+            return stored;
+        }
+
+        @Override
+        public Path resolve(String digest) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void release(String digest) {
+            files.remove(digest);
+        }
+
+        @Override
+        public Map<String, Object> metrics() {
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.studentmanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UploadSessionTest {
+
+    private static UploadSession session(long size, int chunkSize) {
+        return new UploadSession("u", 1L, 2L, 3L, "f.bin", "application/octet-stream", size, chunkSize,
+                Path.of("f.part"));
+    }
+
+    @Test
+    void lastChunkIsShorter() {
+        UploadSession session = session(250, 100);
+        assertEquals(3, session.getChunkCount());
+        assertEquals(100, session.lengthOf(0));
+        assertEquals(200, session.offsetOf(2));
+        assertEquals(50, session.lengthOf(2));
+    }
+
+    @Test
+    void exactMultipleHasNoShortChunk() {
+        UploadSession session = session(300, 100);
+        assertEquals(3, session.getChunkCount());
+        assertEquals(100, session.lengthOf(2));
+    }
+
+    @Test
+    void chunksArrivingOutOfOrderAreTracked() {
+        UploadSession session = session(250, 100);
+        store(session, 2);
+        assertEquals(List.of(0, 1), session.getMissingChunks());
+        store(session, 0);
+        assertEquals(List.of(1), session.getMissingChunks());
+        assertThrows(IllegalStateException.class, session::beginComplete);
+        store(session, 1);
+        assertEquals(3, session.getReceivedChunks());
+        session.beginComplete();
+    }
+
+    @Test
+    void chunkCannotBeWrittenTwiceAtOnce() {
+        UploadSession session = session(250, 100);
+        session.beginChunk(1);
+        assertThrows(IllegalStateException.class, () -> session.beginChunk(1));
+        session.beginChunk(0);
+        session.endChunk(0, true);
+        session.endChunk(1, true);
+        assertEquals(List.of(2), session.getMissingChunks());
+    }
+
+    @Test
+    void failedRetryMakesChunkMissingAgain() {
+        UploadSession session = session(250, 100);
+        store(session, 1);
+        session.beginChunk(1);
+        assertEquals(List.of(0, 1, 2), session.getMissingChunks());
+        session.endChunk(1, false);
+        assertEquals(List.of(0, 1, 2), session.getMissingChunks());
+    }
+
+    @Test
+    void completionWaitsForChunksInFlight() {
+        UploadSession session = session(250, 100);
+        store(session, 0);
+        store(session, 1);
+        store(session, 2);
+        session.beginChunk(2);
+        assertThrows(IllegalStateException.class, session::beginComplete);
+        session.endChunk(2, true);
+        session.beginComplete();
+        assertThrows(IllegalStateException.class, () -> session.beginChunk(0));
+        assertThrows(IllegalStateException.class, session::beginComplete);
+        session.abortComplete();
+        session.beginComplete();
+    }
+
+    private static void store(UploadSession session, int index) {
+        session.beginChunk(index);
+        session.endChunk(index, true);
+    }
+}
@@ -67,6 +67,20 @@ const AssignmentPage = () => {
         } catch (err) { setMsg('❌ Failed to create assignment.'); }
     };
 
+    const openFile = async (id, disposition) => {
+        // Open the tab synchronously so popup blockers allow it, then point it at the signed link
+        const win = window.open('', '_blank');
+        try {
+            const r = await AssignmentService.getFileLink(id, disposition);
+            if (win) win.location.href = r.data.url;
+            else window.location.href = r.data.url;
+        } catch (err) {
+            if (win) win.close();
+            setMsg('❌ Could not open the file.');
+            setTimeout(() => setMsg(''), 3000);
+        }
+    };
+
     const handleSubmitSubmission = async (e) => {
         e.preventDefault();
         try {
@@ -434,20 +448,18 @@ const AssignmentPage = () => {
                                             <p className="text-[10px] opacity-50 uppercase tracking-widest">Digital Attachment</p>
                                         </div>
                                         <div className="flex gap-4">
-                                            <a
-                                                href={`${AssignmentService.getPreviewUrl(previewing.id)}?token=${encodeURIComponent(user.token)}`}
-                                                target="_blank"
-                                                rel="noreferrer"
+                                            <button
+                                                onClick={() => openFile(previewing.id, 'inline')}
                                                 className="btn-primary !px-8 py-3 flex items-center gap-2 shadow-xl shadow-primary/20"
                                             >
                                                 <BookOpen size={18} /> Open in Browser
-                                            </a>
-                                            <a
-                                                href={`${AssignmentService.getPreviewUrl(previewing.id).replace('preview', 'download')}?token=${encodeURIComponent(user.token)}`}
+                                            </button>
+                                            <button
+                                                onClick={() => openFile(previewing.id, 'attachment')}
                                                 className="p-3 px-8 rounded-2xl border border-primary/30 text-primary font-bold hover:bg-primary/5 transition-all flex items-center gap-2"
                                             >
                                                 <Download size={18} /> Download
-                                            </a>
+                                            </button>
                                         </div>
                                         <p className="mt-8 text-[10px] opacity-40 max-w-xs text-center">Note: Browser preview support depends on file type (PDF and Images are supported). Other files will be downloaded automatically.</p>
                                     </div>
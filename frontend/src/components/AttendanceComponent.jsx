@@ -8,6 +8,28 @@ import { AreaChart, Area, XAxis, YAxis, CartesianGrid, Tooltip as RechartsToolti
 
 const API = 'http://localhost:8080/api';
 
+const DAY_NAMES = ['SUNDAY', 'MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY'];
+
+// Expands run-length encoded history into one record per day: each run is its
+// start day plus the next days - 1 school days (weekends and holidays skipped)
+const expandRuns = ({ runs = [], weekendDays = [], holidays = [] }) => {
+    const weekend = new Set(weekendDays);
+    const holiday = new Set(holidays);
+    const isSchoolDay = (day) => !weekend.has(DAY_NAMES[day.getUTCDay()])
+        && !holiday.has(day.toISOString().slice(0, 10));
+    return runs.flatMap(run => {
+        const day = new Date(`${run.start}T00:00:00Z`);
+        const records = [{ date: run.start, status: run.status }];
+        while (records.length < run.days) {
+            day.setUTCDate(day.getUTCDate() + 1);
+            if (isSchoolDay(day)) {
+                records.push({ date: day.toISOString().slice(0, 10), status: run.status });
+            }
+        }
+        return records;
+    });
+};
+
 const AttendanceComponent = () => {
     const [user] = useState(AuthService.getCurrentUser());
     const [isStudent] = useState(user?.roles?.includes('ROLE_STUDENT') || false);
@@ -30,8 +52,8 @@ const AttendanceComponent = () => {
     useEffect(() => {
         const fetchAttendanceData = () => {
             if (isStudent) {
-                axios.get(`${API}/attendance/student/me`, { headers })
-                    .then(res => setMyAttendance(res.data))
+                axios.get(`${API}/attendance/history/me`, { headers })
+                    .then(res => setMyAttendance(expandRuns(res.data)))
                     .catch(err => console.error(err))
                     .finally(() => setLoading(false));
             } else {
@@ -259,12 +281,11 @@ const AttendanceComponent = () => {
                                             <tr>
                                                 <th className="p-3 text-[10px] font-black uppercase tracking-widest opacity-50">Date</th>
                                                 <th className="p-3 text-[10px] font-black uppercase tracking-widest opacity-50">Status</th>
-                                                <th className="p-3 text-[10px] font-black uppercase tracking-widest opacity-50">Record ID</th>
                                             </tr>
                                         </thead>
                                         <tbody>
                                             {sortedHistory.map(row => (
-                                                <tr key={row.id} className="border-b border-border hover:bg-elevated/50 transition-colors">
+                                                <tr key={row.date} className="border-b border-border hover:bg-elevated/50 transition-colors">
                                                     <td className="p-3">
                                                         <div className="font-semibold text-sm">{new Date(row.date).toLocaleDateString('en-US', { weekday: 'short', month: 'short', day: 'numeric', year: 'numeric' })}</div>
                                                     </td>
@@ -279,9 +300,6 @@ const AttendanceComponent = () => {
                                                             </div>
                                                         )}
                                                     </td>
-                                                    <td className="p-3 text-xs opacity-40 font-mono">
-                                                        #{row.id.toString().padStart(5, '0')}
-                                                    </td>
                                                 </tr>
                                             ))}
                                         </tbody>
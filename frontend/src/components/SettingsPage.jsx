@@ -120,7 +120,7 @@ const SettingsPage = () => {
                                     {/* Avatar */}
                                     <div className="flex flex-col sm:flex-row items-center sm:items-start gap-8 pb-6 justify-center sm:justify-start" style={{ borderBottom: '1px solid var(--border)' }}>
                                         <ProfileAvatarUploader
-                                            currentAvatarUrl={`http://localhost:8080/api/profile/avatar/${user?.username}?v=${avatarKey}`}
+                                            currentAvatarUrl={`http://localhost:8080/api/profile/avatar/${user?.username}?size=256&v=${avatarKey}`}
                                             onUploadSuccess={() => setAvatarKey(Date.now())}
                                         />
                                         <div className="text-center sm:text-left pt-2">
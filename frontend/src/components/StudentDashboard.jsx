@@ -46,7 +46,7 @@ const StudentDashboard = () => {
     const [notices, setNotices] = useState([]);
     const [assignments, setAssignments] = useState([]);
     const [marks, setMarks] = useState([]);
-    const [attendance, setAttendance] = useState([]);
+    const [attendance, setAttendance] = useState(null);
     const navigate = useNavigate();
     const headers = { Authorization: `Bearer ${user?.token}` };
 
@@ -67,16 +67,16 @@ const StudentDashboard = () => {
         const fetchAllData = async () => {
             setIsRefreshing(true);
             try {
-                const [nRes, aRes, mRes, attRes] = await Promise.all([
+                // The report card answers 304 (served from the browser cache) until something changes
+                const [nRes, cardRes] = await Promise.all([
                     axios.get(`${API}/notifications`, { headers }).catch(() => ({ data: [] })),
-                    axios.get(`${API}/assignments/student/${user.username}`, { headers }).catch(() => ({ data: [] })),
-                    axios.get(`${API}/marks/student/me`, { headers }).catch(() => ({ data: [] })),
-                    axios.get(`${API}/attendance/student/me`, { headers }).catch(() => ({ data: [] })),
+                    axios.get(`${API}/students/me/report-card`, { headers }).catch(() => ({ data: null })),
                 ]);
+                const card = cardRes.data;
                 setNotices(nRes.data.slice(0, 3));
-                setAssignments(aRes.data);
-                setMarks(mRes.data);
-                setAttendance(attRes.data);
+                setAssignments(card?.assignments || []);
+                setMarks((card?.subjects || []).flatMap(s => s.marks.map(m => ({ ...m, subject: s.subject }))));
+                setAttendance(card?.attendance || null);
                 setLastUpdated(new Date());
             } catch { /* silent */ }
             setIsRefreshing(false);
@@ -114,23 +114,13 @@ const StudentDashboard = () => {
     }));
 
     // 2. Attendance Trends (Area Chart)
-    const processAttendance = (records) => {
-        if (!records.length) return [];
-        const monthly = {};
-        const sorted = [...records].sort((a, b) => new Date(a.date) - new Date(b.date));
-        sorted.forEach(r => {
-            const d = new Date(r.date);
-            const m = d.toLocaleString('default', { month: 'short' });
-            if (!monthly[m]) monthly[m] = { total: 0, present: 0 };
-            monthly[m].total++;
-            if (r.status === 'Present') monthly[m].present++;
-        });
-        return Object.keys(monthly).map(m => ({
-            month: m,
-            percentage: Math.round((monthly[m].present / monthly[m].total) * 100)
-        }));
-    };
-    const attendanceData = processAttendance(attendance);
+    const attendanceData = (attendance?.monthly || []).map(m => {
+        const [year, month] = m.month.split('-');
+        return {
+            month: new Date(year, month - 1).toLocaleString('default', { month: 'short' }),
+            percentage: Math.round(m.rate)
+        };
+    });
 
     // 3. Assignment Completion (Pie Chart)
     const pendingCount = assignments.filter(a => a.submissionStatus !== 'submitted').length;
@@ -142,7 +132,7 @@ const StudentDashboard = () => {
 
     // 4. AI-Driven Smart Insights Generator
     const generateInsights = () => {
-        if (!marks.length && !attendance.length && !assignments.length) return [];
+        if (!marks.length && !attendance?.total && !assignments.length) return [];
         let insights = [];
 
         // Performance Insight
@@ -155,9 +145,8 @@ const StudentDashboard = () => {
         }
 
         // Attendance Insight
-        if (attendance.length > 0) {
-            const presentCount = attendance.filter(a => a.status === 'Present').length;
-            const attPerc = Math.round((presentCount / attendance.length) * 100);
+        if (attendance?.total > 0) {
+            const attPerc = Math.round((attendance.present / attendance.total) * 100);
             if (attPerc < 75) insights.push({ type: 'danger', text: `Critical Warning: Your attendance (${attPerc}%) is below the required 75% threshold.` });
             else if (attPerc >= 90) insights.push({ type: 'success', text: `Excellent attendance record (${attPerc}%). Consistency is key to academic success.` });
         }
@@ -132,7 +132,7 @@ const MainLayout = ({ children }) => {
                             >
                                 {!avatarError ? (
                                     <img
-                                        src={`http://localhost:8080/api/profile/avatar/${user.username}`}
+                                        src={`http://localhost:8080/api/profile/avatar/${user.username}?size=64`}
                                         alt="Profile"
                                         className="w-6 h-6 rounded-full object-cover flex-shrink-0"
                                         onError={() => setAvatarError(true)}
@@ -220,7 +220,7 @@ const Sidebar = ({ isOpen, setIsOpen }) => {
                     >
                         {!avatarError ? (
                             <img
-                                src={`http://localhost:8080/api/profile/avatar/${user.username}`}
+                                src={`http://localhost:8080/api/profile/avatar/${user.username}?size=64`}
                                 alt="Profile"
                                 className="w-9 h-9 rounded-full object-cover shadow-md flex-shrink-0"
                                 onError={() => setAvatarError(true)}
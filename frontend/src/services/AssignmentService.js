@@ -27,6 +27,10 @@ const AssignmentService = {
 
     // Preview
     getPreviewUrl: (id) => `${API_URL}/preview/${id}`,
+    // Short-lived signed link to a submitted file ('inline' or 'attachment')
+    getFileLink: (id, disposition = 'inline') => axios.get(`${API_URL}/${id}/link`, {
+        headers: getHeaders(), params: { disposition }
+    }),
 
     // Reports
     getAnalytics: () => axios.get(`${API_URL}/analytics`, { headers: getHeaders() })